@@ -1,10 +1,14 @@
 package com.example.usermanagement.config;
 
+import com.example.usermanagement.entities.Permission;
 import com.example.usermanagement.entities.Role;
 import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.AppPermission;
 import com.example.usermanagement.enums.UserStatus;
+import com.example.usermanagement.repositories.PermissionRepository;
 import com.example.usermanagement.repositories.RoleRepository;
 import com.example.usermanagement.repositories.UserRepository;
+import com.example.usermanagement.security.RoleRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -14,7 +18,12 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -23,7 +32,9 @@ public class DataInitializer {
 
     private final DatabaseInitializer databaseInitializer;
     private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
     private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
     //hash password
     private final PasswordEncoder passwordEncoder;
 
@@ -37,6 +48,9 @@ public class DataInitializer {
 
         // Step 2: Initialize roles
         initializeRoles();
+        initializePermissions();
+        // The registry was loaded before the default roles existed
+        roleRegistry.reload();
 
         // Step 3: Initialize users
         initializeUsers();
@@ -76,6 +90,38 @@ public class DataInitializer {
         }
     }
 
+    // Adds missing AppPermission rows and grants each new one to its default roles; ADMIN always gets all.
+    // Existing grants are never removed, so permissions taken away from a role stay taken away.
+    private void initializePermissions() {
+        Map<String, Permission> existing = permissionRepository.findAll().stream()
+                .collect(Collectors.toMap(Permission::getName, Function.identity()));
+        Set<AppPermission> created = new HashSet<>();
+        for (AppPermission permission : AppPermission.values()) {
+            if (!existing.containsKey(permission.name())) {
+                existing.put(permission.name(), permissionRepository.save(
+                        new Permission(permission.name(), permission.getDescription())));
+                created.add(permission);
+            }
+        }
+        if (!created.isEmpty()) {
+            log.info("Created {} permissions", created.size());
+        }
+
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            if (role.getPermissions() == null) {
+                role.setPermissions(new HashSet<>());
+            }
+            Set<String> held = role.getPermissions().stream().map(Permission::getName).collect(Collectors.toSet());
+            for (AppPermission permission : AppPermission.values()) {
+                boolean grant = "ADMIN".equals(role.getName())
+                        || (created.contains(permission) && permission.getDefaultRoles().contains(role.getName()));
+                if (grant && !held.contains(permission.name())) {
+                    role.getPermissions().add(existing.get(permission.name()));
+                }
+            }
+        }
+    }
+
     private void initializeUsers() {
         log.info("Checking users data...");
 
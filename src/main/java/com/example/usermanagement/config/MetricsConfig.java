@@ -0,0 +1,75 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.search.UserSearchIndex;
+import com.example.usermanagement.search.UserSuggestIndex;
+import com.example.usermanagement.security.TokenRevocationList;
+import com.example.usermanagement.security.UserDetailsCache;
+import com.example.usermanagement.service.impl.ApproximateCountServiceImpl;
+import com.example.usermanagement.service.impl.UserServiceImpl;
+import com.example.usermanagement.util.ExpiringLruCache;
+import com.example.usermanagement.util.JwtUtil;
+import com.example.usermanagement.util.RequestCoalescer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Publishes hit/miss counters of the in-process caches under /actuator/metrics/cache.*
+    @Bean
+    public MeterBinder inProcessCacheMetrics(JwtUtil jwtUtil, UserDetailsCache userDetailsCache,
+                                             ApproximateCountServiceImpl approximateCountService) {
+        return registry -> {
+            bindCache(registry, "jwtVerifiedTokens", jwtUtil.getVerifiedTokenCache());
+            bindCache(registry, "userDetails", userDetailsCache.getCache());
+            bindCache(registry, "approximateCounts", approximateCountService.getCache());
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenRevocationMetrics(TokenRevocationList tokenRevocationList) {
+        return registry -> Gauge.builder("jwt.revoked", tokenRevocationList, TokenRevocationList::size)
+                .description("Revoked token ids still within their validity window").register(registry);
+    }
+
+    @Bean
+    public MeterBinder userSearchIndexMetrics(UserSearchIndex userSearchIndex, UserSuggestIndex userSuggestIndex) {
+        return registry -> {
+            Gauge.builder("search.index.users", userSearchIndex, UserSearchIndex::size)
+                    .description("Users held in the in-memory trigram search index").register(registry);
+            Gauge.builder("suggest.index.users", userSuggestIndex, UserSuggestIndex::size)
+                    .description("Users held in the in-memory typeahead dictionary").register(registry);
+        };
+    }
+
+    // requests / batches is the average number of single-user reads answered per query
+    @Bean
+    public MeterBinder userLookupMetrics(UserServiceImpl userService) {
+        return registry -> {
+            RequestCoalescer<?, ?> lookups = userService.getUserLookups();
+            FunctionCounter.builder("users.lookup.requests", lookups, RequestCoalescer::getRequestCount)
+                    .description("Single-user reads submitted for coalescing").register(registry);
+            FunctionCounter.builder("users.lookup.batches", lookups, RequestCoalescer::getBatchCount)
+                    .description("Batched queries issued for single-user reads").register(registry);
+            FunctionCounter.builder("users.lookup.keys", lookups, RequestCoalescer::getLoadedKeyCount)
+                    .description("Distinct ids loaded by those queries").register(registry);
+        };
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, ExpiringLruCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::getHitCount)
+                .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", cache, ExpiringLruCache::getMissCount)
+                .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", cache, ExpiringLruCache::getEvictionCount)
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.size", cache, ExpiringLruCache::size)
+                .tag("cache", name).register(registry);
+        Gauge.builder("cache.hit.ratio", cache, ExpiringLruCache::getHitRate)
+                .tag("cache", name).register(registry);
+    }
+}
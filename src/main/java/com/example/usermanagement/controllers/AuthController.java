@@ -1,25 +1,48 @@
 package com.example.usermanagement.controllers;
 
 import com.example.usermanagement.dto.request.LoginRequest;
+import com.example.usermanagement.dto.request.RefreshTokenRequest;
 import com.example.usermanagement.dto.request.RegisterRequest;
 import com.example.usermanagement.dto.response.AuthResponse;
 import com.example.usermanagement.entities.Role;
 import com.example.usermanagement.entities.User;
+import com.example.usermanagement.event.UserChangedEvent;
 import com.example.usermanagement.exception.RoleNotFoundException;
-import com.example.usermanagement.repositories.RoleRepository;
+import com.example.usermanagement.repositories.UserJdbcRepository;
 import com.example.usermanagement.repositories.UserRepository;
+import com.example.usermanagement.security.AuthUser;
+import com.example.usermanagement.security.JwtKeyring;
+import com.example.usermanagement.security.PasswordHashingExecutor;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.SecurityVersionRegistry;
+import com.example.usermanagement.security.TokenRevocationList;
+import com.example.usermanagement.security.UserDetailsCache;
 import com.example.usermanagement.util.JwtUtil;
+import com.example.usermanagement.util.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/auth")
@@ -30,46 +53,72 @@ public class AuthController {
     private final JwtUtil jwtUtil;
 
     private final UserRepository userRepository;
+    // Uniqueness checks that also see soft-deleted users
+    private final UserJdbcRepository userJdbcRepository;
 
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
     private final PasswordEncoder passwordEncoder;
 
+    private final UserDetailsCache userDetailsCache;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final JwtKeyring jwtKeyring;
+
+    private final UserDetailsService userDetailsService;
+
+    private final SecurityVersionRegistry securityVersionRegistry;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.security.hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${app.jwt.jwks-max-age:5m}")
+    private Duration jwksMaxAge;
+
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest) {
-        //check username exists
-        if (!userRepository.findByUsername(loginRequest.getUsername()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new AuthResponse("username or password invalid",null));
-        }
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody LoginRequest loginRequest) {
+        UsernamePasswordAuthenticationToken credentials =
+                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword());
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-            );
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtUtil.generateToken(userDetails);
-            return ResponseEntity.ok(new AuthResponse("login successfully",token ));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(new AuthResponse("username or password invalid",null));
+            // The provider does the only user lookup and the BCrypt check on the hashing pool;
+            // the request thread is released while it runs
+            return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(credentials))
+                    .thenApply(authentication -> {
+                        AuthUser authUser = (AuthUser) authentication.getPrincipal();
+                        return ResponseEntity.ok(new AuthResponse("login successfully",
+                                jwtUtil.generateToken(authUser), jwtUtil.generateRefreshToken(authUser)));
+                    })
+                    .exceptionally(e -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(new AuthResponse("username or password invalid", null)));
+        } catch (RejectedExecutionException e) {
+            // Shed load instead of queueing more BCrypt work than the pool can absorb
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(new AuthResponse("Too many login attempts, please retry later", null)));
         }
     }
 
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest registerRequest) {
         // Check if username already exists
-        if (userRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
+        if (userJdbcRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity.badRequest()
                     .body(new AuthResponse("Username already exists", null));
         }
         // Check if email already exists
-        if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
+        if (userJdbcRepository.existsByEmail(registerRequest.getEmail())) {
             return ResponseEntity.badRequest()
                     .body(new AuthResponse("Email already exists", null));
         }
         // Default role is EMPLOYEE
-        Role role = roleRepository.findByName("USER")
-                .orElseThrow(() -> new RoleNotFoundException("Role not found"));
+        Role role = roleRegistry.findByName("USER")
+                .orElseThrow(() -> new RoleNotFoundException("Role not found"))
+                .toEntity();
 
         // Create new user
         User user = new User();
@@ -78,16 +127,86 @@ public class AuthController {
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
         user.setRole(role);
 
-        userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDetailsCache.evict(saved.getUsername());
+        eventPublisher.publishEvent(UserChangedEvent.created(saved));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new AuthResponse("User registered successfully", null));
     }
 
+    // Exchange a refresh token for a new access/refresh pair; the presented refresh token is revoked
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        VerifiedToken refreshToken = verifyQuietly(request.getRefreshToken());
+        if (refreshToken == null || !refreshToken.isRefreshToken() || refreshToken.getUserId() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AuthResponse("refresh token invalid", null));
+        }
+
+        if (!tokenRevocationList.revoke(refreshToken.getTokenId(), refreshToken.getExpiresAt())) {
+            // A rotated refresh token came back: assume it leaked and cut off every session of the user
+            securityVersionRegistry.bump(refreshToken.getUserId());
+            userDetailsCache.evict(refreshToken.getUsername());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AuthResponse("refresh token already used", null));
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(refreshToken.getUsername());
+        } catch (UsernameNotFoundException e) {
+            userDetails = null;
+        }
+        if (!(userDetails instanceof AuthUser authUser)
+                || !authUser.isEnabled()
+                || !authUser.getId().equals(refreshToken.getUserId())
+                || authUser.getSecurityVersion() > refreshToken.getSecurityVersion()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new AuthResponse("refresh token invalid", null));
+        }
+
+        return ResponseEntity.ok(new AuthResponse("token refreshed",
+                jwtUtil.generateToken(authUser), jwtUtil.generateRefreshToken(authUser)));
+    }
+
     @PostMapping("/logout")
-    public ResponseEntity<AuthResponse> logout() {
+    public ResponseEntity<AuthResponse> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        // Revoke the presented tokens until their natural expiry
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            revokeQuietly(authorization.substring(7));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            revokeQuietly(request.getRefreshToken());
+        }
+
         // Clear the security context
         SecurityContextHolder.clearContext();
 
         return ResponseEntity.ok(new AuthResponse("Logged out successfully", null));
     }
+
+    // Public ES256 keys so other services can verify tokens locally instead of calling back here
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .body(Map.of("keys", jwtKeyring.getPublicJwks()));
+    }
+
+    private VerifiedToken verifyQuietly(String token) {
+        try {
+            return jwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void revokeQuietly(String token) {
+        VerifiedToken verified = verifyQuietly(token);
+        if (verified != null) {
+            tokenRevocationList.revoke(verified.getTokenId(), verified.getExpiresAt());
+        }
+    }
 }
@@ -1,16 +1,22 @@
 package com.example.usermanagement.controllers;
 
 import com.example.usermanagement.dto.request.CreateRoleRequest;
+import com.example.usermanagement.dto.request.RolePermissionsRequest;
 import com.example.usermanagement.dto.request.UpdateRoleRequest;
 import com.example.usermanagement.dto.response.RoleResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
 import com.example.usermanagement.service.RoleService;
+import com.example.usermanagement.util.ResourceVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,44 +27,84 @@ public class RoleController {
     private final RoleService roleService;
 
     @PostMapping
+    @PreAuthorize("hasPermission(null, 'ROLE_WRITE')")
     public ResponseEntity<RoleResponse> createRole(@Valid @RequestBody CreateRoleRequest request) {
         return ResponseEntity.ok(roleService.createRole(request));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RoleResponse> getRole(@PathVariable Long id) {
-        return ResponseEntity.ok(roleService.getRoleById(id));
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
+    public ResponseEntity<RoleResponse> getRole(@PathVariable Long id, WebRequest request) {
+        ResourceVersion version = roleService.getRoleVersion(id);
+        // checkNotModified has already set the 304 status and validators
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate())
+                .body(roleService.getRoleById(id));
     }
 
     @GetMapping("/name/{name}")
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
     public ResponseEntity<RoleResponse> getRoleByName(@PathVariable String name) {
         return ResponseEntity.ok(roleService.getRoleByName(name));
     }
 
     @GetMapping
-    public ResponseEntity<List<RoleResponse>> getAllRoles() {
-        return ResponseEntity.ok(roleService.getAllRoles());
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
+    public ResponseEntity<List<RoleResponse>> getAllRoles(WebRequest request) {
+        ResourceVersion version = roleService.getAllRolesVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate())
+                .body(roleService.getAllRoles());
     }
 
     @GetMapping("/paginated")
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
     public ResponseEntity<Page<RoleResponse>> getAllRolesPaginated(
             @PageableDefault(size = 10, sort = "id") Pageable pageable) {
         return ResponseEntity.ok(roleService.getAllRoles(pageable));
     }
 
+    @GetMapping(value = "/paginated", params = "count=false")
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
+    public ResponseEntity<SliceResponse<RoleResponse>> getAllRolesSlice(
+            @PageableDefault(size = 10, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(roleService.getAllRolesSlice(pageable));
+    }
+
     @PutMapping("/{id}")
+    @PreAuthorize("hasPermission(null, 'ROLE_WRITE')")
     public ResponseEntity<RoleResponse> updateRole(@PathVariable Long id,
                                                   @Valid @RequestBody UpdateRoleRequest request) {
         return ResponseEntity.ok(roleService.updateRole(id, request));
     }
 
     @DeleteMapping("/{id}")
+    @PreAuthorize("hasPermission(null, 'ROLE_WRITE')")
     public ResponseEntity<Void> deleteRole(@PathVariable Long id) {
         roleService.deleteRole(id);
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/{id}/permissions")
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
+    public ResponseEntity<List<String>> getRolePermissions(@PathVariable Long id) {
+        return ResponseEntity.ok(roleService.getRolePermissions(id));
+    }
+
+    // Replaces the role's permissions; principals of the role pick up the change on their next request
+    @PutMapping("/{id}/permissions")
+    @PreAuthorize("hasPermission(null, 'ROLE_WRITE')")
+    public ResponseEntity<List<String>> updateRolePermissions(@PathVariable Long id,
+                                                              @Valid @RequestBody RolePermissionsRequest request) {
+        return ResponseEntity.ok(roleService.updateRolePermissions(id, request.getPermissions()));
+    }
+
     @GetMapping("/exists/{name}")
+    @PreAuthorize("hasPermission(null, 'ROLE_READ')")
     public ResponseEntity<Boolean> checkRoleExists(@PathVariable String name) {
         return ResponseEntity.ok(roleService.existsByName(name));
     }
@@ -0,0 +1,63 @@
+package com.example.usermanagement.controllers;
+
+import com.example.usermanagement.dto.request.SkillRequest;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.SkillResponse;
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.service.SkillService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/skills")
+public class SkillController {
+    private final SkillService skillService;
+
+    @PostMapping
+    @PreAuthorize("hasPermission(null, 'SKILL_WRITE')")
+    public ResponseEntity<SkillResponse> createSkill(@Valid @RequestBody SkillRequest request) {
+        return ResponseEntity.ok(skillService.createSkill(request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SkillResponse>> getAllSkills() {
+        return ResponseEntity.ok(skillService.getAllSkills());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SkillResponse> getSkill(@PathVariable Long id) {
+        return ResponseEntity.ok(skillService.getSkillById(id));
+    }
+
+    // Users by skill names, e.g. all=Java,Spring&none=Kotlin; answered from the in-memory skill index.
+    // Pages by id: pass back nextCursor to continue
+    @GetMapping("/users")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<CursorPageResponse<UserResponse>> findUsersBySkills(
+            @RequestParam(defaultValue = "") List<String> all,
+            @RequestParam(defaultValue = "") List<String> any,
+            @RequestParam(defaultValue = "") List<String> none,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        return ResponseEntity.ok(skillService.findUsersBySkills(all, any, none, cursor, pageSize));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasPermission(null, 'SKILL_WRITE')")
+    public ResponseEntity<SkillResponse> updateSkill(@PathVariable Long id, @Valid @RequestBody SkillRequest request) {
+        return ResponseEntity.ok(skillService.updateSkill(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasPermission(null, 'SKILL_WRITE')")
+    public ResponseEntity<Void> deleteSkill(@PathVariable Long id) {
+        skillService.deleteSkill(id);
+        return ResponseEntity.noContent().build();
+    }
+}
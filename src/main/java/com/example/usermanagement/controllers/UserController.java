@@ -1,37 +1,138 @@
 package com.example.usermanagement.controllers;
 
+import com.example.usermanagement.dto.request.BulkUserRequest;
 import com.example.usermanagement.dto.request.CreateUserRequest;
+import com.example.usermanagement.dto.request.PatchUserRequest;
 import com.example.usermanagement.dto.request.UpdateUserRequest;
+import com.example.usermanagement.dto.request.UserExportFilter;
+import com.example.usermanagement.dto.request.UserSkillsRequest;
+import com.example.usermanagement.dto.response.BulkUserResponse;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.ImportJobResponse;
+import com.example.usermanagement.dto.response.SkillResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
+import com.example.usermanagement.dto.response.UserBatchResponse;
 import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.dto.response.UserSuggestion;
 import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.DataFormat;
+import com.example.usermanagement.enums.UserStatus;
+import com.example.usermanagement.search.UserSuggestIndex;
+import com.example.usermanagement.service.SkillService;
+import com.example.usermanagement.service.UserBulkService;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserImportService;
 import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.util.ResourceVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final UserBulkService userBulkService;
+    private final SkillService skillService;
+    private final UserSuggestIndex userSuggestIndex;
 
+    @Value("${app.users.suggest.max-limit:20}")
+    private int maxSuggestions;
 
     @PostMapping
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
     public ResponseEntity<User> createUser( @Valid @RequestPart CreateUserRequest request,
                                            @RequestPart(value = "imageFile", required = false) MultipartFile imageFile) throws IOException {
         return ResponseEntity.ok(userService.createUser(request, imageFile));
     }
 
+    // Bulk import from a CSV (with header row) or NDJSON body; runs in the background
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasPermission(null, 'USER_BULK')")
+    public ResponseEntity<ImportJobResponse> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         InputStream body) throws IOException {
+        ImportJobResponse job = userImportService.startImport(body, DataFormat.fromContentType(contentType));
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasPermission(null, 'USER_BULK')")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(userImportService.getJob(jobId));
+    }
+
+    // Full or incremental export streamed from a database cursor; format is ndjson or csv
+    @GetMapping("/export")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) UserStatus status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince) {
+        DataFormat dataFormat = DataFormat.fromName(format);
+        UserExportFilter filter = new UserExportFilter(status, role, updatedSince);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("users." + dataFormat.name().toLowerCase()).build();
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(out -> userExportService.exportUsers(filter, dataFormat, out));
+    }
+
+    // Up to app.users.batch.max-ids users in one query, e.g. ids=3,1,2; order follows the request
+    @GetMapping("/batch")
+    public ResponseEntity<UserBatchResponse> getUsersBatch(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserResponse> getUser(@PathVariable Long id, WebRequest request) {
+        // Revalidation only reads the version columns; the full user is loaded, batched with concurrent
+        // lookups, when it has changed
+        ResourceVersion version = userService.getUserVersion(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        // Replaces Spring Security's no-store default so clients keep the body and revalidate it
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate())
+                .body(userService.getUserById(id));
+    }
+
+    // Sparse fieldset, e.g. fields=id,username,avatarUrl: only those columns are selected and serialized
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getUserFields(@PathVariable Long id, @RequestParam String fields,
+                                                             WebRequest request) {
+        ResourceVersion version = userService.getUserVersion(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate())
+                .body(userService.getUserFields(id, fields));
     }
 
     @GetMapping
@@ -44,8 +145,58 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers(pageNo, pageSize, sortBy, sortDir));
     }
 
+    // Slice mode: hasNext plus a cached approximate total instead of a COUNT(*) per page
+    @GetMapping(params = "count=false")
+    public ResponseEntity<SliceResponse<UserResponse>> getAllUsersSlice(
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        return ResponseEntity.ok(userService.getAllUsersSlice(pageNo, pageSize, sortBy, sortDir));
+    }
+
+    @GetMapping(value = "/search", params = "count=false")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<SliceResponse<UserResponse>> searchUsersSlice(
+            @RequestParam(defaultValue = "") String keyword,
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        return ResponseEntity.ok(userService.searchUsersSlice(keyword, pageNo, pageSize, sortBy, sortDir));
+    }
+
+    // Cursor mode: start with an empty cursor, then pass back nextCursor; no OFFSET and no COUNT
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<UserResponse>> getAllUsersByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        return ResponseEntity.ok(userService.getAllUsers(cursor, pageSize, sortBy, sortDir));
+    }
+
+    @GetMapping(value = "/search", params = "cursor")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<CursorPageResponse<UserResponse>> searchUsersByCursor(
+            @RequestParam(defaultValue = "") String keyword,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+        return ResponseEntity.ok(userService.searchUsers(keyword, cursor, pageSize, sortBy, sortDir));
+    }
+
+    // Typeahead on username and email prefixes, answered from memory
+    @GetMapping("/suggest")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<List<UserSuggestion>> suggestUsers(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userSuggestIndex.suggest(prefix, Math.min(limit, maxSuggestions)));
+    }
+
     @GetMapping("/search")
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
     public ResponseEntity<Page<UserResponse>> searchUsers(
             @RequestParam(defaultValue = "") String keyword,
             @RequestParam(defaultValue = "0") int pageNo,
@@ -55,22 +206,56 @@ public class UserController {
         return ResponseEntity.ok(userService.searchUsers(keyword, pageNo, pageSize, sortBy, sortDir));
     }
 
-    @PreAuthorize("hasRole('ROLE_ADMIN') or @userService.isCurrentUser(#id)")
+    // Users may edit themselves, but only admins may change the role
+    @PreAuthorize("hasPermission(#id, 'User', 'USER_WRITE') "
+            + "and (#request.role_id == null or hasPermission(null, 'USER_WRITE'))")
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestPart UpdateUserRequest request,
                                                    @RequestPart(value = "imageFile", required = false) MultipartFile imageFile) throws IOException {
         return ResponseEntity.ok(userService.updateUser(id, request,imageFile));
     }
-    //active a user
+    // Activate, deactivate, soft-delete or reassign the role of many users at once
+    @PostMapping("/bulk")
+    @PreAuthorize("hasPermission(null, 'USER_BULK')")
+    public ResponseEntity<BulkUserResponse> bulkUpdate(@Valid @RequestBody BulkUserRequest request) {
+        return ResponseEntity.ok(userBulkService.apply(request));
+    }
+
+    // Partial update in one UPDATE; send the version from an earlier response as If-Match to avoid lost writes.
+    // Only admins may change the role.
+    @PreAuthorize("hasPermission(#id, 'User', 'USER_WRITE') "
+            + "and (#request.role_id == null or hasPermission(null, 'USER_WRITE'))")
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<UserResponse> patchUser(@PathVariable Long id, @Valid @RequestBody PatchUserRequest request,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                  String ifMatch) {
+        UserResponse patched = userService.patchUser(id, request, ResourceVersion.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(patched.getVersion())).body(patched);
+    }
+
+    @GetMapping("/{id}/skills")
+    public ResponseEntity<List<SkillResponse>> getUserSkills(@PathVariable Long id) {
+        return ResponseEntity.ok(skillService.getUserSkills(id));
+    }
+
+    // Replaces the whole skill set; the user's version and updatedAt move when anything changes
+    @PutMapping("/{id}/skills")
+    @PreAuthorize("hasPermission(#id, 'User', 'USER_WRITE')")
+    public ResponseEntity<List<SkillResponse>> replaceUserSkills(@PathVariable Long id,
+                                                                 @Valid @RequestBody UserSkillsRequest request) {
+        return ResponseEntity.ok(skillService.replaceUserSkills(id, request.getSkillIds()));
+    }
+
+    //active a user; a soft-deleted user that has not been archived yet is restored
     @PutMapping("/{id}/active")
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
     public ResponseEntity<UserResponse> activateUser(@PathVariable Long id) {
         UserResponse activatedUser = userService.activateUser(id);
         return ResponseEntity.ok(activatedUser);
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_DELETE')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
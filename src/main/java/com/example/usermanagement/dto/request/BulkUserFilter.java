@@ -0,0 +1,24 @@
+package com.example.usermanagement.dto.request;
+
+import com.example.usermanagement.enums.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserFilter {
+    // Role name
+    private String role;
+    private UserStatus status;
+    // Inclusive lower and exclusive upper bound on createdAt
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+
+    public boolean isEmpty() {
+        return (role == null || role.isBlank()) && status == null && createdFrom == null && createdTo == null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.usermanagement.dto.request;
+
+import com.example.usermanagement.enums.BulkUserAction;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Targets either the listed ids or every user matching the filter, never both
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserRequest {
+    @NotNull(message = "Action is required")
+    private BulkUserAction action;
+
+    private List<@NotNull(message = "Ids must not be null") Long> ids;
+
+    private BulkUserFilter filter;
+
+    // Target role of REASSIGN_ROLE
+    private Long roleId;
+}
@@ -0,0 +1,30 @@
+package com.example.usermanagement.dto.request;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+// Partial update: null fields are left untouched
+@Data
+public class PatchUserRequest {
+    @Size(min = 2, max = 100, message = "Name must be between 2 and 100 characters")
+    private String name;
+
+    @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
+    @Pattern(regexp = ".*\\S.*", message = "Username must not be blank")
+    private String username;
+
+    @Email(message = "Email should be valid")
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    private String email;
+
+    @Size(min = 10, max = 15, message = "Phone must be between 10 and 15 characters")
+    private String phone;
+
+    private Long role_id;
+
+    public boolean isEmpty() {
+        return name == null && username == null && email == null && phone == null && role_id == null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.usermanagement.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class RolePermissionsRequest {
+    // Permission names such as USER_READ; replaces the role's permissions, an empty set removes them all
+    @NotNull(message = "permissions is required")
+    private Set<@NotBlank(message = "Permission names must not be blank") String> permissions;
+}
@@ -0,0 +1,12 @@
+package com.example.usermanagement.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SkillRequest {
+    @NotBlank(message = "Skill name is required")
+    @Size(max = 50, message = "Skill name must not exceed 50 characters")
+    private String name;
+}
@@ -0,0 +1,19 @@
+package com.example.usermanagement.dto.request;
+
+import com.example.usermanagement.enums.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserExportFilter {
+    private UserStatus status;
+    // Role name
+    private String role;
+    // Only users changed at or after this instant, for incremental exports
+    private LocalDateTime updatedSince;
+}
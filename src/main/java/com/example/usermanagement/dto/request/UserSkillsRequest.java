@@ -0,0 +1,13 @@
+package com.example.usermanagement.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class UserSkillsRequest {
+    // Replaces the user's skills; an empty set removes them all
+    @NotNull(message = "skillIds is required")
+    private Set<Long> skillIds;
+}
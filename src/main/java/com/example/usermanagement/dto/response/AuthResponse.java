@@ -10,4 +10,9 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     private String message;
     private String token;
+    private String refreshToken;
+
+    public AuthResponse(String message, String token) {
+        this(message, token, null);
+    }
 }
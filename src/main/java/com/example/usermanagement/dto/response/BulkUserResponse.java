@@ -0,0 +1,18 @@
+package com.example.usermanagement.dto.response;
+
+import com.example.usermanagement.enums.BulkUserAction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserResponse {
+    private BulkUserAction action;
+    // Users selected by the ids or filter
+    private long matchedRows;
+    // Users actually changed; already-matching users are skipped
+    private long affectedRows;
+    private int chunks;
+}
@@ -0,0 +1,27 @@
+package com.example.usermanagement.dto.response;
+
+import com.example.usermanagement.enums.DataFormat;
+import com.example.usermanagement.enums.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobResponse {
+    private String id;
+    private ImportStatus status;
+    private DataFormat format;
+    private long processedRows;
+    private long importedRows;
+    private long failedRows;
+    // Capped at app.users.import.max-reported-errors; failedRows keeps the full count
+    private List<ImportRowError> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
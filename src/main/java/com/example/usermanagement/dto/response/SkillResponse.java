@@ -0,0 +1,15 @@
+package com.example.usermanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SkillResponse {
+    private Long id;
+    private String name;
+    // Non-deleted users holding the skill
+    private int userCount;
+}
@@ -0,0 +1,19 @@
+package com.example.usermanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SliceResponse<T> {
+    private List<T> content;
+    private int pageNo;
+    private int pageSize;
+    private boolean hasNext;
+    // Cached total for the same filter; may lag recent writes by up to app.pagination.count-cache.ttl
+    private long approximateTotal;
+}
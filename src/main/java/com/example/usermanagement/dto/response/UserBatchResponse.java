@@ -0,0 +1,17 @@
+package com.example.usermanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBatchResponse {
+    // Found users in the order their ids were requested
+    private List<UserResponse> users;
+    // Requested ids with no (non-deleted) user
+    private List<Long> missingIds;
+}
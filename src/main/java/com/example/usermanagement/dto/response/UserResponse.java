@@ -22,4 +22,6 @@ public class UserResponse {
     private UserStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Echo in If-Match to PATCH the user without reading it first
+    private Long version;
 }
@@ -0,0 +1,15 @@
+package com.example.usermanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSuggestion {
+    private Long id;
+    private String username;
+    private String name;
+    private String avatarUrl;
+}
@@ -0,0 +1,30 @@
+package com.example.usermanagement.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Token ids revoked by logout or refresh rotation, shared by every instance through TokenRevocationList.
+// Only written through JDBC; rows are purged once the token would have expired anyway.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        // Incremental sync between instances
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Entity
+public class RevokedToken {
+    // The jti claim
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    // Epoch milliseconds, as in the exp claim
+    @Column(name = "expires_at", nullable = false)
+    private Long expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Long revokedAt;
+}
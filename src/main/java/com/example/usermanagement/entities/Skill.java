@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
@@ -15,12 +17,14 @@ import java.util.Set;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity(name = "skills")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "skills")
 public class Skill {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
     @NotBlank(message="Name must not be blank")
+    @Column(unique = true, nullable = false, length = 50)
     private String name;
 
     @ManyToMany(fetch = FetchType.LAZY, mappedBy = "skills")
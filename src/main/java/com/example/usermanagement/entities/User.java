@@ -7,7 +7,11 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -19,8 +23,17 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Archival scans for rows deleted before the retention cutoff
+        @Index(name = "idx_users_deleted", columnList = "is_deleted, deleted_at"),
+        // Incremental exports filter on updated_at
+        @Index(name = "idx_users_updated_at", columnList = "updated_at"),
+        // Cursor pagination by createdAt seeks on (created_at, id); InnoDB appends the primary key to the index
+        @Index(name = "idx_users_created_at", columnList = "created_at")
+})
 @Entity
+// Soft-deleted users are invisible to every entity load and JPQL query; JDBC queries filter explicitly
+@SQLRestriction("is_deleted = false")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -73,8 +86,22 @@ public class User {
 
     private String userAvatarUrl;
 
+    // Bumped to invalidate every token issued so far; only ever changed through UserRepository queries
+    @Column(name = "security_version", insertable = false, updatable = false,
+            columnDefinition = "integer default 0 not null")
+    private Integer securityVersion;
 
+    // Optimistic lock; also the ETag of the user, so JPQL/JDBC updates of the row increment it as well
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+
+    // Skill ids per user; the skills themselves come from the "skills" region.
+    // Collections missing from the cache are initialized 50 users per query instead of one by one
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-skills")
     @JsonIgnoreProperties(value = { "skills" })
     @JoinTable(name = "user_skill", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "skill_id"))
     private Set<Skill> skills;
@@ -0,0 +1,55 @@
+package com.example.usermanagement.entities;
+
+import com.example.usermanagement.enums.UserStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Users moved out of the users table by UserArchiveJob once their soft-delete retention has passed.
+// Only written through JDBC; passwords and skill links are not carried over.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "users_archive", indexes = {
+        @Index(name = "idx_users_archive_archived_at", columnList = "archived_at")
+})
+@Entity
+public class UserArchive {
+    // Same id the user had in the users table
+    @Id
+    private Long id;
+
+    private String name;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String phone;
+
+    @Enumerated(EnumType.STRING)
+    private UserStatus status;
+
+    @Column(name = "role_id")
+    private Long roleId;
+
+    private String userAvatar;
+
+    private String userAvatarUrl;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
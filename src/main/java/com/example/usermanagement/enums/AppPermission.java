@@ -0,0 +1,64 @@
+package com.example.usermanagement.enums;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Permissions checked with hasPermission(...). Names are the ids of the permissions table; bits index the
+// per-role bitset and must never be reused or renumbered, only appended (at most 64).
+// Roles created through the API start with the permissions marked for new roles; more are granted with
+// PUT /api/roles/{id}/permissions.
+public enum AppPermission {
+    ROLE_READ(0, "View roles", Set.of("ADMIN", "USER", "MODERATOR", "GUEST"), true),
+    ROLE_WRITE(1, "Create, rename and delete roles and grant permissions", Set.of("ADMIN"), false),
+    USER_READ(2, "Search, list and export users", Set.of("ADMIN"), false),
+    USER_WRITE(3, "Create, update and activate any user", Set.of("ADMIN"), false),
+    USER_DELETE(4, "Delete users", Set.of("ADMIN"), false),
+    USER_BULK(5, "Run bulk operations and imports on users", Set.of("ADMIN"), false),
+    SKILL_WRITE(6, "Create, rename and delete skills", Set.of("ADMIN"), false);
+
+    private static final Map<String, AppPermission> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, Function.identity()));
+
+    private final int bit;
+
+    private final String description;
+
+    // Roles granted the permission when it is first seeded; ADMIN always holds every permission
+    private final Set<String> defaultRoles;
+
+    private final boolean grantedToNewRoles;
+
+    AppPermission(int bit, String description, Set<String> defaultRoles, boolean grantedToNewRoles) {
+        if (bit < 0 || bit >= Long.SIZE) {
+            throw new IllegalArgumentException("Permission bit out of range: " + bit);
+        }
+        this.bit = bit;
+        this.description = description;
+        this.defaultRoles = defaultRoles;
+        this.grantedToNewRoles = grantedToNewRoles;
+    }
+
+    public long mask() {
+        return 1L << bit;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Set<String> getDefaultRoles() {
+        return defaultRoles;
+    }
+
+    public boolean isGrantedToNewRoles() {
+        return grantedToNewRoles;
+    }
+
+    public static Optional<AppPermission> fromName(String name) {
+        return Optional.ofNullable(name == null ? null : BY_NAME.get(name));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.usermanagement.enums;
+
+public enum BulkUserAction {
+    ACTIVATE,
+    DEACTIVATE,
+    SOFT_DELETE,
+    // Needs roleId; also the way to empty a role before deleting it
+    REASSIGN_ROLE
+}
@@ -0,0 +1,8 @@
+package com.example.usermanagement.enums;
+
+public enum ImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+}
@@ -0,0 +1,59 @@
+package com.example.usermanagement.enums;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Fields selectable through fields= on GET /api/users/{id}, named like the UserResponse properties
+public enum UserField {
+    ID("id", "u.id"),
+    NAME("name", "u.name"),
+    USERNAME("username", "u.username"),
+    EMAIL("email", "u.email"),
+    PHONE("phone", "u.phone"),
+    ROLE_NAME("roleName", "r.name"),
+    USER_AVATAR("userAvatar", "u.user_avatar"),
+    USER_AVATAR_URL("userAvatarUrl", "u.user_avatar_url"),
+    STATUS("status", "u.status"),
+    CREATED_AT("createdAt", "u.created_at"),
+    UPDATED_AT("updatedAt", "u.updated_at"),
+    VERSION("version", "u.version");
+
+    private static final Map<String, UserField> BY_NAME = Arrays.stream(values())
+            .collect(Collectors.toMap(f -> f.fieldName.toLowerCase(Locale.ROOT), Function.identity()));
+
+    // Short names used by other endpoints, e.g. UserSuggestion
+    private static final Map<String, UserField> ALIASES = Map.of(
+            "avatarurl", USER_AVATAR_URL,
+            "avatar", USER_AVATAR,
+            "role", ROLE_NAME);
+
+    private final String fieldName;
+
+    private final String column;
+
+    UserField(String fieldName, String column) {
+        this.fieldName = fieldName;
+        this.column = column;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public boolean needsRole() {
+        return this == ROLE_NAME;
+    }
+
+    public static Optional<UserField> fromName(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        return Optional.ofNullable(BY_NAME.getOrDefault(key, ALIASES.get(key)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.usermanagement.event;
+
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.entities.User;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a user row has been written, so in-memory views of the user table can follow along.
+ * Carries the searchable fields to spare listeners a round trip to the database.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UserChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+    }
+
+    private final Type type;
+    private final Long userId;
+    private final String username;
+    private final String email;
+    private final String name;
+    private final String userAvatarUrl;
+
+    public static UserChangedEvent created(User user) {
+        return of(Type.CREATED, user);
+    }
+
+    public static UserChangedEvent updated(User user) {
+        return of(Type.UPDATED, user);
+    }
+
+    public static UserChangedEvent updated(UserResponse user) {
+        return new UserChangedEvent(Type.UPDATED, user.getId(), user.getUsername(), user.getEmail(), user.getName(),
+                user.getUserAvatarUrl());
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(Type.DELETED, userId, null, null, null, null);
+    }
+
+    private static UserChangedEvent of(Type type, User user) {
+        return new UserChangedEvent(type, user.getId(), user.getUsername(), user.getEmail(), user.getName(),
+                user.getUserAvatarUrl());
+    }
+}
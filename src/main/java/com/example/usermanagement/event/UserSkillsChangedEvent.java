@@ -0,0 +1,29 @@
+package com.example.usermanagement.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Published after rows of the user_skill table have been written, so the skill index can follow along.
+ * Either one user's skills were replaced, or a skill was deleted together with all its assignments.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UserSkillsChangedEvent {
+
+    private final Long userId;
+    // Complete skill set of userId after the change
+    private final Set<Long> skillIds;
+    private final Long deletedSkillId;
+
+    public static UserSkillsChangedEvent assigned(Long userId, Set<Long> skillIds) {
+        return new UserSkillsChangedEvent(userId, Set.copyOf(skillIds), null);
+    }
+
+    public static UserSkillsChangedEvent skillDeleted(Long skillId) {
+        return new UserSkillsChangedEvent(null, Set.of(), skillId);
+    }
+}
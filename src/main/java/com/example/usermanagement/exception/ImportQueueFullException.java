@@ -0,0 +1,7 @@
+package com.example.usermanagement.exception;
+
+public class ImportQueueFullException extends RuntimeException {
+    public ImportQueueFullException() {
+        super("Too many imports are queued, please retry later");
+    }
+}
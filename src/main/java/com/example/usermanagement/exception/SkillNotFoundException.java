@@ -0,0 +1,11 @@
+package com.example.usermanagement.exception;
+
+public class SkillNotFoundException extends RuntimeException {
+    public SkillNotFoundException(Long id) {
+        super("Skill not found with id: " + id);
+    }
+
+    public SkillNotFoundException(String name) {
+        super("Skill not found with name: " + name);
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.usermanagement.fitler;
 
+import com.example.usermanagement.security.AuthUser;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.SecurityVersionRegistry;
+import com.example.usermanagement.security.TokenRevocationList;
 import com.example.usermanagement.util.JwtUtil;
+import com.example.usermanagement.util.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,30 +32,42 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    // Build the principal from token claims instead of loading the user on every request
+    @Value("${app.security.stateless-auth:true}")
+    private boolean statelessAuth;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        VerifiedToken token = null;
 
         // Check if Authorization header exists and starts with "Bearer "
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Signature and expiry are checked once here, the result is reused below
+                token = jwtUtil.verify(authHeader.substring(7));
             } catch (Exception e) {
                 logger.error("JWT token validation error: " + e.getMessage());
             }
         }
 
         // Set authentication if user is found and no authentication exists yet
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(token);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
 
@@ -59,4 +78,32 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Returns null when the token no longer matches the user's current state
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        // Refresh tokens are only good for /api/auth/refresh
+        if (token.isRefreshToken() || tokenRevocationList.isRevoked(token.getTokenId(), token.getExpiresAt())) {
+            return null;
+        }
+        if (statelessAuth && token.getUserId() != null && token.getRole() != null) {
+            if (!securityVersionRegistry.isCurrent(token.getUserId(), token.getSecurityVersion())) {
+                logger.debug("Rejecting token with stale security version for user " + token.getUsername());
+                return null;
+            }
+            // Bits come from the current registry, so permission changes apply to tokens already issued
+            return AuthUser.fromToken(token, roleRegistry.getPermissionBits(token.getRole()));
+        }
+
+        UserDetails userDetails;
+        try {
+            userDetails = this.userDetailsService.loadUserByUsername(token.getUsername());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        if (userDetails instanceof AuthUser authUser
+                && (!authUser.isEnabled() || authUser.getSecurityVersion() > token.getSecurityVersion())) {
+            return null;
+        }
+        return token.getUsername().equals(userDetails.getUsername()) ? userDetails : null;
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.usermanagement.mapper;
+
+import com.example.usermanagement.dto.request.SkillRequest;
+import com.example.usermanagement.dto.response.SkillResponse;
+import com.example.usermanagement.entities.Skill;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SkillMapper {
+
+    public Skill toEntity(SkillRequest request) {
+        return Skill.builder()
+                .name(request.getName().trim())
+                .build();
+    }
+
+    public SkillResponse toResponse(Skill skill, int userCount) {
+        return new SkillResponse(skill.getId(), skill.getName(), userCount);
+    }
+}
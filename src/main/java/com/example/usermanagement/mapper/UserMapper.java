@@ -48,7 +48,8 @@ public class UserMapper {
                 user.getUserAvatarUrl(),
                 user.getStatus(),
                 user.getCreatedAt(),
-                user.getUpdatedAt()
+                user.getUpdatedAt(),
+                user.getVersion()
         );
     }
 
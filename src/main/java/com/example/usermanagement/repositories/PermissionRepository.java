@@ -0,0 +1,9 @@
+package com.example.usermanagement.repositories;
+
+import com.example.usermanagement.entities.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PermissionRepository extends JpaRepository<Permission, String> {
+}
@@ -0,0 +1,39 @@
+package com.example.usermanagement.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Persistent side of TokenRevocationList. The primary key on jti makes "revoke if not yet revoked"
+ * atomic across instances, which is what refresh token reuse detection relies on.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RevokedTokenJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // False when the id was already revoked, by this or any other instance
+    public boolean insert(String jti, long expiresAt, long revokedAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)",
+                    jti, expiresAt, revokedAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Columns jti and expires_at of unexpired tokens revoked at or after the given time
+    public void streamRevokedSince(long revokedSince, long now, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT jti, expires_at FROM revoked_tokens WHERE revoked_at >= ? AND expires_at > ?",
+                handler, revokedSince, now);
+    }
+
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", now);
+    }
+}
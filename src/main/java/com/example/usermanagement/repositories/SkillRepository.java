@@ -0,0 +1,21 @@
+package com.example.usermanagement.repositories;
+
+import com.example.usermanagement.entities.Skill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SkillRepository extends JpaRepository<Skill, Long> {
+    boolean existsByNameIgnoreCase(String name);
+
+    // lowerNames must already be lower-cased
+    @Query("SELECT s FROM skills s WHERE LOWER(s.name) IN :names")
+    List<Skill> findByLowerNames(@Param("names") Collection<String> lowerNames);
+
+    List<Skill> findAllByOrderByNameAsc();
+}
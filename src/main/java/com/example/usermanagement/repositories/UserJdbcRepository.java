@@ -0,0 +1,373 @@
+package com.example.usermanagement.repositories;
+
+import com.example.usermanagement.dto.request.BulkUserFilter;
+import com.example.usermanagement.dto.request.UserExportFilter;
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.BulkUserAction;
+import com.example.usermanagement.enums.UserField;
+import com.example.usermanagement.enums.UserStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Set-based user queries that bypass the persistence context.
+ * IDENTITY ids keep Hibernate from batching inserts, so bulk writes go through JDBC here.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (name, username, password, email, phone, status, is_deleted, role_id, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // Rows per round trip for drivers that cannot stream row by row
+    @Value("${app.users.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    // One multi-row batch; the caller owns the transaction. Generated ids are written back to the users.
+    public int[] batchInsert(List<User> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int[] counts = jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getName());
+                        ps.setString(2, user.getUsername());
+                        ps.setString(3, user.getPassword());
+                        ps.setString(4, user.getEmail());
+                        ps.setString(5, user.getPhone());
+                        ps.setString(6, user.getStatus().name());
+                        ps.setBoolean(7, Boolean.TRUE.equals(user.getIsDeleted()));
+                        ps.setLong(8, user.getRole().getId());
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < users.size(); i++) {
+            Object id = keys.get(i).values().stream().findFirst().orElse(null);
+            if (id instanceof Number number) {
+                users.get(i).setId(number.longValue());
+            }
+        }
+        return counts;
+    }
+
+    // Apply only the given columns in one UPDATE that also bumps the version. With an expected version
+    // the row is only touched while still at that version. Column names are spliced into the SQL, so they
+    // must come from code, never from input. Returns the number of updated rows.
+    public int patch(Long id, Map<String, Object> columns, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        Map<String, Object> params = new HashMap<>(columns);
+        columns.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1, updated_at = :updated_at WHERE id = :id AND is_deleted = false");
+        params.put("updated_at", Timestamp.valueOf(LocalDateTime.now()));
+        params.put("id", id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = :expected_version");
+            params.put("expected_version", expectedVersion);
+        }
+        return namedParameterJdbcTemplate.update(sql.toString(), params);
+    }
+
+    // Up to limit ids after afterId matching the filter, in id order, for keyset-chunked bulk updates.
+    // Deleted users are included so REASSIGN_ROLE can empty a role; the other actions skip them in the UPDATE.
+    public List<Long> findIds(BulkUserFilter filter, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT u.id FROM users u");
+        Map<String, Object> params = new HashMap<>();
+        if (filter.getRole() != null && !filter.getRole().isBlank()) {
+            sql.append(" JOIN roles r ON r.id = u.role_id AND r.name = :role");
+            params.put("role", filter.getRole());
+        }
+        sql.append(" WHERE u.id > :after_id");
+        params.put("after_id", afterId);
+        if (filter.getStatus() != null) {
+            sql.append(" AND u.status = :status");
+            params.put("status", filter.getStatus().name());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND u.created_at >= :created_from");
+            params.put("created_from", Timestamp.valueOf(filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND u.created_at < :created_to");
+            params.put("created_to", Timestamp.valueOf(filter.getCreatedTo()));
+        }
+        sql.append(" ORDER BY u.id LIMIT :limit");
+        params.put("limit", limit);
+        return namedParameterJdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    // Ids among the given ones that bulkUpdate would change, locked until the caller's transaction ends
+    public List<Long> lockIdsToChange(BulkUserAction action, Long roleId, Collection<Long> ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        params.put("role_id", roleId);
+        return namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id IN (:ids) AND " + bulkCondition(action) + " ORDER BY id FOR UPDATE",
+                params, Long.class);
+    }
+
+    // One set-based UPDATE over the given ids. Rows already in the target state are left alone, so the
+    // count is the number of users actually changed. Every changed row gets a new version, and actions
+    // that take rights away also bump the security version to invalidate issued tokens.
+    public int bulkUpdate(BulkUserAction action, Long roleId, Collection<Long> ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        params.put("role_id", roleId);
+        params.put("now", Timestamp.valueOf(LocalDateTime.now()));
+        String set = switch (action) {
+            case ACTIVATE -> "status = 'ACTIVE', version = version + 1, updated_at = :now";
+            case DEACTIVATE -> "status = 'INACTIVE', security_version = security_version + 1, "
+                    + "version = version + 1, updated_at = :now";
+            case SOFT_DELETE -> "is_deleted = true, deleted_at = :now, status = 'INACTIVE', "
+                    + "security_version = security_version + 1, version = version + 1, updated_at = :now";
+            case REASSIGN_ROLE -> "role_id = :role_id, security_version = security_version + 1, "
+                    + "version = version + 1, updated_at = :now";
+        };
+        return namedParameterJdbcTemplate.update(
+                "UPDATE users SET " + set + " WHERE id IN (:ids) AND " + bulkCondition(action), params);
+    }
+
+    // Rows the action would actually change
+    private static String bulkCondition(BulkUserAction action) {
+        return switch (action) {
+            case ACTIVATE -> "is_deleted = false AND status <> 'ACTIVE'";
+            case DEACTIVATE -> "is_deleted = false AND status <> 'INACTIVE'";
+            case SOFT_DELETE -> "is_deleted = false";
+            case REASSIGN_ROLE -> "role_id <> :role_id";
+        };
+    }
+
+    // Undo a soft delete that has not been archived yet. Bumps the security version so that tokens issued
+    // before the delete stay dead; 0 when the user is live, archived or unknown.
+    public int restore(Long id) {
+        return jdbcTemplate.update("UPDATE users SET is_deleted = false, deleted_at = NULL, status = 'ACTIVE', "
+                        + "security_version = security_version + 1, version = version + 1, updated_at = ? "
+                        + "WHERE id = ? AND is_deleted = true",
+                Timestamp.valueOf(LocalDateTime.now()), id);
+    }
+
+    // Read matching users in id order through a forward-only cursor; each row is handed over and dropped
+    public void streamUsers(UserExportFilter filter, Consumer<UserResponse> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT u.id, u.name, u.username, u.email, u.phone, r.name AS role_name, u.user_avatar, "
+                        + "u.user_avatar_url, u.status, u.created_at, u.updated_at, u.version "
+                        + "FROM users u JOIN roles r ON r.id = u.role_id WHERE u.is_deleted = false");
+        List<Object> args = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            sql.append(" AND u.status = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getRole() != null && !filter.getRole().isBlank()) {
+            sql.append(" AND r.name = ?");
+            args.add(filter.getRole());
+        }
+        if (filter.getUpdatedSince() != null) {
+            sql.append(" AND u.updated_at >= ?");
+            args.add(Timestamp.valueOf(filter.getUpdatedSince()));
+        }
+        sql.append(" ORDER BY u.id");
+
+        stream(sql.toString(), args, rs -> {
+            consumer.accept(toUserResponse(rs));
+        });
+    }
+
+    // Id, searchable text and avatar of every user, streamed in id order
+    public void streamSearchFields(RowCallbackHandler handler) {
+        stream("SELECT id, username, email, name, user_avatar_url FROM users WHERE is_deleted = false ORDER BY id",
+                List.of(), handler);
+    }
+
+    // Ids of every user that is not soft-deleted, in id order
+    public void streamLiveUserIds(RowCallbackHandler handler) {
+        stream("SELECT id FROM users WHERE is_deleted = false ORDER BY id", List.of(), handler);
+    }
+
+    // Every user_skill row, deleted users included
+    public void streamUserSkills(RowCallbackHandler handler) {
+        stream("SELECT user_id, skill_id FROM user_skill", List.of(), handler);
+    }
+
+    // Unassign a skill from everyone. Holders get a new version first, as for any other change to their skills.
+    // The caller owns the transaction. Returns the number of removed assignments.
+    public int deleteSkillAssignments(Long skillId) {
+        jdbcTemplate.update("UPDATE users SET version = version + 1, updated_at = ? "
+                        + "WHERE id IN (SELECT user_id FROM user_skill WHERE skill_id = ?)",
+                Timestamp.valueOf(LocalDateTime.now()), skillId);
+        return jdbcTemplate.update("DELETE FROM user_skill WHERE skill_id = ?", skillId);
+    }
+
+    // Move one batch of users soft-deleted before the cutoff into users_archive, oldest first.
+    // The caller owns the transaction, so the copy and the delete commit together. Returns the moved count.
+    public int archiveDeleted(LocalDateTime deletedBefore, int batchSize) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE is_deleted = true AND deleted_at < ? ORDER BY deleted_at LIMIT ?",
+                Long.class, Timestamp.valueOf(deletedBefore), batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> params = Map.of("ids", ids, "now", Timestamp.valueOf(LocalDateTime.now()));
+        namedParameterJdbcTemplate.update(
+                "INSERT INTO users_archive (id, name, username, email, phone, status, role_id, user_avatar, "
+                        + "user_avatar_url, created_at, updated_at, deleted_at, archived_at) "
+                        + "SELECT id, name, username, email, phone, status, role_id, user_avatar, user_avatar_url, "
+                        + "created_at, updated_at, deleted_at, :now FROM users WHERE id IN (:ids)", params);
+        namedParameterJdbcTemplate.update("DELETE FROM user_skill WHERE user_id IN (:ids)", params);
+        return namedParameterJdbcTemplate.update("DELETE FROM users WHERE id IN (:ids) AND is_deleted = true", params);
+    }
+
+    // Only the requested columns of one user, keyed by the names they were requested under;
+    // roles are joined only when the role name is asked for
+    public Optional<Map<String, Object>> findFields(Long id, Map<String, UserField> fields) {
+        boolean joinRole = fields.values().stream().anyMatch(UserField::needsRole);
+        StringBuilder sql = new StringBuilder("SELECT ");
+        List<UserField> columns = new ArrayList<>(fields.values());
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(columns.get(i).getColumn());
+        }
+        sql.append(" FROM users u");
+        if (joinRole) {
+            sql.append(" JOIN roles r ON r.id = u.role_id");
+        }
+        sql.append(" WHERE u.id = ? AND u.is_deleted = false");
+        List<Map<String, Object>> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int i = 1;
+            for (Map.Entry<String, UserField> field : fields.entrySet()) {
+                row.put(field.getKey(), readField(rs, i++, field.getValue()));
+            }
+            return row;
+        }, id);
+        return rows.stream().findFirst();
+    }
+
+    // Uniqueness checks see soft-deleted users too, since their rows still hold the unique keys
+    public boolean existsByUsername(String username) {
+        return !findExistingUsernames(List.of(username)).isEmpty();
+    }
+
+    public boolean existsByEmail(String email) {
+        return !findExistingEmails(List.of(email)).isEmpty();
+    }
+
+    // Deleted users included, since their rows still reference the role
+    public boolean existsByRoleId(Long roleId) {
+        return !jdbcTemplate.queryForList("SELECT id FROM users WHERE role_id = ? LIMIT 1", Long.class, roleId)
+                .isEmpty();
+    }
+
+    // Lower-cased usernames from the given set that are already taken, deleted users included
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        return findExisting("username", usernames);
+    }
+
+    // Lower-cased emails from the given set that are already taken, deleted users included
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return findExisting("email", emails);
+    }
+
+    private void stream(String sql, List<Object> args, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J only streams instead of buffering the whole result when asked for Integer.MIN_VALUE
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            ps.setFetchSize(mysql ? Integer.MIN_VALUE : exportFetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
+    // Same Java types as the UserResponse properties, so both shapes serialize alike
+    private static Object readField(ResultSet rs, int index, UserField field) throws SQLException {
+        return switch (field) {
+            case ID, VERSION -> rs.getLong(index);
+            case STATUS -> {
+                String status = rs.getString(index);
+                yield status != null ? UserStatus.valueOf(status) : null;
+            }
+            case CREATED_AT, UPDATED_AT -> {
+                Timestamp timestamp = rs.getTimestamp(index);
+                yield timestamp != null ? timestamp.toLocalDateTime() : null;
+            }
+            default -> rs.getString(index);
+        };
+    }
+
+    private static UserResponse toUserResponse(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        String status = rs.getString("status");
+        return new UserResponse(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("role_name"),
+                rs.getString("user_avatar"),
+                rs.getString("user_avatar_url"),
+                status != null ? UserStatus.valueOf(status) : null,
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                updatedAt != null ? updatedAt.toLocalDateTime() : null,
+                rs.getLong("version")
+        );
+    }
+
+    private Set<String> findExisting(String column, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        if (values.isEmpty()) {
+            return existing;
+        }
+        namedParameterJdbcTemplate.query(
+                "SELECT " + column + " FROM users WHERE " + column + " IN (:values)",
+                Map.of("values", values),
+                rs -> {
+                    existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                });
+        return existing;
+    }
+}
@@ -1,28 +1,116 @@
 package com.example.usermanagement.repositories;
 
+import com.example.usermanagement.dto.response.UserResponse;
 import com.example.usermanagement.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    @Query("SELECT u FROM User u WHERE " +
-           "(:keyword IS NULL OR :keyword = '' OR " +
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+    String SEARCH_FILTER = "(:keyword IS NULL OR :keyword = '' OR " +
            "LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(u.name) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+           "LOWER(u.name) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+
+    @Query("SELECT u FROM User u WHERE " + SEARCH_FILTER)
     Page<User> findUsersWithSearch(@Param("keyword") String keyword, Pageable pageable);
 
+    // List endpoints read straight into the response DTO: one query with the role name joined,
+    // no managed entities and no EAGER role selects. Slice variants fetch one extra row to know
+    // whether a next page exists and never run a count query.
+    String USER_RESPONSE = "SELECT new com.example.usermanagement.dto.response.UserResponse(" +
+           "u.id, u.name, u.username, u.email, u.phone, r.name, u.userAvatar, u.userAvatarUrl, u.status, " +
+           "u.createdAt, u.updatedAt, u.version) FROM User u JOIN u.role r";
+
+    @Query(value = USER_RESPONSE, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserResponse> findAllResponses(Pageable pageable);
+
+    @Query(USER_RESPONSE)
+    Slice<UserResponse> findResponseSlice(Pageable pageable);
+
+    @Query(value = USER_RESPONSE + " WHERE " + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(u) FROM User u WHERE " + SEARCH_FILTER)
+    Page<UserResponse> findResponsesWithSearch(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(USER_RESPONSE + " WHERE " + SEARCH_FILTER)
+    Slice<UserResponse> findResponseSliceWithSearch(@Param("keyword") String keyword, Pageable pageable);
+
+    @Query(USER_RESPONSE + " WHERE u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    @Query(USER_RESPONSE + " WHERE u.id IN :ids")
+    List<UserResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE " + SEARCH_FILTER)
+    long countUsersWithSearch(@Param("keyword") String keyword);
+
+    // Columns the representation of GET /api/users/{id} depends on, read without hydrating the user
+    interface VersionView {
+        Long getVersion();
+
+        LocalDateTime getUpdatedAt();
+
+        LocalDateTime getRoleUpdatedAt();
+    }
+
+    @Query("SELECT u.version AS version, u.updatedAt AS updatedAt, r.updatedAt AS roleUpdatedAt " +
+           "FROM User u JOIN u.role r WHERE u.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
     Page<User> findByUsernameContainingIgnoreCaseOrEmailContainingIgnoreCase(
             String username, String email, Pageable pageable);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1 WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    // Security versions are read natively so soft-deleted users keep their revoked tokens revoked
+    @Query(value = "SELECT id AS id, security_version AS securityVersion FROM users WHERE security_version > 0",
+           nativeQuery = true)
+    List<SecurityVersionView> findBumpedSecurityVersions();
+
+    @Query(value = "SELECT id AS id, security_version AS securityVersion FROM users WHERE role_id = :roleId",
+           nativeQuery = true)
+    List<SecurityVersionView> findSecurityVersionsByRole(@Param("roleId") Long roleId);
+
+    @Query(value = "SELECT id AS id, security_version AS securityVersion FROM users WHERE id IN (:ids)",
+           nativeQuery = true)
+    List<SecurityVersionView> findSecurityVersionsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT security_version FROM users WHERE id = :id", nativeQuery = true)
+    Optional<Integer> findSecurityVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.securityVersion = u.securityVersion + 1, u.version = u.version + 1 WHERE u.id = :id")
+    int incrementSecurityVersion(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.securityVersion = u.securityVersion + 1, u.version = u.version + 1 " +
+           "WHERE u.role.id = :roleId")
+    int incrementSecurityVersionByRole(@Param("roleId") Long roleId);
+
+    interface SecurityVersionView {
+        Long getId();
+        Integer getSecurityVersion();
+    }
 }
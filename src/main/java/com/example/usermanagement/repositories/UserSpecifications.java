@@ -0,0 +1,31 @@
+package com.example.usermanagement.repositories;
+
+import com.example.usermanagement.entities.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    // Same matching rules as UserRepository.findUsersWithSearch
+    public static Specification<User> matchesKeyword(String keyword) {
+        return (root, query, cb) -> {
+            if (keyword == null || keyword.isEmpty()) {
+                return cb.conjunction();
+            }
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("username")), pattern),
+                    cb.like(cb.lower(root.get("email")), pattern),
+                    cb.like(cb.lower(root.get("name")), pattern)
+            );
+        };
+    }
+}
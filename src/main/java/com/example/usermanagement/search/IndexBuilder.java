@@ -0,0 +1,136 @@
+package com.example.usermanagement.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Full rebuilds shared by the in-memory user indexes.
+ * <p>
+ * A build scans into fresh state without holding the index lock, swaps it in, and replays every change
+ * applied while the scan was running, since those changes may be newer than the scanned rows. Only one
+ * build runs at a time.
+ *
+ * @param <S> scanned state of the index
+ * @param <E> change event applied to the index
+ */
+@Slf4j
+final class IndexBuilder<S, E> {
+
+    private final String name;
+
+    // The index's own write lock; swaps, replays and recorded events all happen under it
+    private final Lock writeLock;
+
+    private final Supplier<S> scan;
+
+    private final Consumer<S> install;
+
+    private final Consumer<E> apply;
+
+    // Held for a whole build
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    // Guarded by writeLock; non-null while a scan is running
+    private List<E> pending;
+
+    private volatile boolean built;
+
+    /**
+     * @param install swaps the scanned state in, called with the write lock held
+     * @param apply   applies one change, called with the write lock held
+     */
+    IndexBuilder(String name, Lock writeLock, Supplier<S> scan, Consumer<S> install, Consumer<E> apply) {
+        this.name = name;
+        this.writeLock = writeLock;
+        this.scan = scan;
+        this.install = install;
+        this.apply = apply;
+    }
+
+    boolean isBuilt() {
+        return built;
+    }
+
+    // Rebuilds on a daemon thread so startup does not wait for the scan
+    void startInBackground() {
+        Thread builder = new Thread(this::rebuild, name.replace(' ', '-') + "-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    // Skipped when another build is still running; a failed rebuild keeps the current state
+    void rebuild() {
+        if (!buildLock.tryLock()) {
+            log.debug("{} build already running; skipping", name);
+            return;
+        }
+        try {
+            build();
+        } catch (RuntimeException e) {
+            log.error(built ? "Could not rebuild the {}; keeping the current state" : "Could not build the {}",
+                    name, e);
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    // Waits for a build that is already running instead of starting another one; failures reach the caller
+    void buildIfNeeded() {
+        buildLock.lock();
+        try {
+            if (!built) {
+                build();
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    // Caller holds the write lock and applies the event itself
+    void record(E event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        writeLock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        S scanned;
+        try {
+            scanned = scan.get();
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                pending = null;
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+
+        writeLock.lock();
+        try {
+            install.accept(scanned);
+            List<E> replay = pending;
+            pending = null;
+            replay.forEach(apply);
+            built = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Built the {} in {} ms", name, System.currentTimeMillis() - started);
+    }
+}
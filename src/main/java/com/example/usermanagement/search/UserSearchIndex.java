@@ -0,0 +1,317 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over username, email and name, answering the same substring queries as
+ * {@code LOWER(col) LIKE '%keyword%'} without scanning the table.
+ * <p>
+ * Postings are sorted {@code int[]} arrays. A compacted base is built from a full scan; later writes land in
+ * a small delta that is folded into the base once it grows. Postings are never removed in place: every
+ * candidate is checked against the current text of the user, so stale postings cost time but never
+ * produce wrong results.
+ * <p>
+ * Writes only reach the index through local events, so a periodic full rebuild picks up changes made by
+ * other instances and swaps the new state in at once.
+ */
+@Component
+public class UserSearchIndex {
+
+    public static final int GRAM = 3;
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final int compactionThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Current text of every user, keyed by id
+    private Map<Integer, Entry> entries = new HashMap<>();
+
+    private Map<Long, int[]> basePostings = new HashMap<>();
+
+    private Map<Long, DeltaPostings> deltaPostings = new HashMap<>();
+
+    private long basePostingCount;
+
+    private long deltaSize;
+
+    private final IndexBuilder<Scan, UserChangedEvent> builder;
+
+    public UserSearchIndex(UserJdbcRepository userJdbcRepository,
+                           @Value("${app.users.search-index.compaction-threshold:50000}") int compactionThreshold) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.compactionThreshold = compactionThreshold;
+        this.builder = new IndexBuilder<>("user search index", lock.writeLock(), this::scan, this::install,
+                this::applyLocked);
+    }
+
+    public record Entry(int id, String username, String email, String name) {
+
+        boolean matches(String lowerKeyword) {
+            return contains(username, lowerKeyword) || contains(email, lowerKeyword) || contains(name, lowerKeyword);
+        }
+
+        private static boolean contains(String value, String lowerKeyword) {
+            return value != null && value.toLowerCase(Locale.ROOT).contains(lowerKeyword);
+        }
+    }
+
+    // Postings are built from the scan too, so the write lock is only held for the swap
+    private record Scan(Map<Integer, Entry> entries, Map<Long, int[]> postings) {
+    }
+
+    // Built after startup data seeding; until then callers fall back to the database
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        builder.startInBackground();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.search-index.rebuild-interval:300000}",
+            initialDelayString = "${app.users.search-index.rebuild-interval:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public boolean isReady() {
+        return builder.isBuilt();
+    }
+
+    // Keywords shorter than a trigram cannot be answered from the index
+    public boolean canSearch(String keyword) {
+        return isReady() && keyword != null && keyword.trim().length() >= GRAM;
+    }
+
+    public void rebuild() {
+        builder.rebuild();
+    }
+
+    private Scan scan() {
+        Map<Integer, Entry> scanned = new HashMap<>();
+        userJdbcRepository.streamSearchFields(rs -> {
+            long id = rs.getLong("id");
+            if (id > Integer.MAX_VALUE) {
+                throw new IllegalStateException("User id " + id + " does not fit the search index");
+            }
+            scanned.put((int) id, new Entry((int) id, rs.getString("username"), rs.getString("email"),
+                    rs.getString("name")));
+        });
+        return new Scan(scanned, buildPostings(scanned));
+    }
+
+    // Caller holds the write lock
+    private void install(Scan scan) {
+        entries = scan.entries();
+        setBase(scan.postings());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() == null || event.getUserId() > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            builder.record(event);
+            applyLocked(event);
+            // Rebuilding costs time proportional to the whole index, so let the delta grow with it
+            if (deltaSize > Math.max(compactionThreshold, basePostingCount / 4)) {
+                setBase(buildPostings(entries));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Every user whose username, email or name contains the keyword, ignoring case
+    public List<Entry> search(String keyword) {
+        String lowerKeyword = keyword.trim().toLowerCase(Locale.ROOT);
+        long[] grams = grams(lowerKeyword);
+        lock.readLock().lock();
+        try {
+            // Drive the intersection from the rarest trigram
+            long rarest = grams[0];
+            int rarestSize = Integer.MAX_VALUE;
+            for (long gram : grams) {
+                int size = postingSize(gram);
+                if (size == 0) {
+                    return new ArrayList<>();
+                }
+                if (size < rarestSize) {
+                    rarest = gram;
+                    rarestSize = size;
+                }
+            }
+            List<Entry> matches = new ArrayList<>();
+            collect(basePostings.get(rarest), grams, lowerKeyword, matches);
+            DeltaPostings delta = deltaPostings.get(rarest);
+            if (delta != null) {
+                collect(Arrays.copyOf(delta.ids, delta.size), grams, lowerKeyword, matches);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(int[] ids, long[] grams, String lowerKeyword, List<Entry> matches) {
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            boolean all = true;
+            for (int g = 0; g < grams.length && all; g++) {
+                DeltaPostings delta = deltaPostings.get(grams[g]);
+                all = contains(basePostings.get(grams[g]), id) || (delta != null && delta.contains(id));
+            }
+            if (!all) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            if (entry != null && entry.matches(lowerKeyword)) {
+                matches.add(entry);
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void applyLocked(UserChangedEvent event) {
+        int id = event.getUserId().intValue();
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            entries.remove(id);
+            return;
+        }
+        Entry entry = new Entry(id, event.getUsername(), event.getEmail(), event.getName());
+        if (entry.equals(entries.put(id, entry))) {
+            return;
+        }
+        for (long gram : grams(entry)) {
+            if (contains(basePostings.get(gram), id)) {
+                continue;
+            }
+            if (deltaPostings.computeIfAbsent(gram, k -> new DeltaPostings()).add(id)) {
+                deltaSize++;
+            }
+        }
+    }
+
+    private int postingSize(long gram) {
+        int[] base = basePostings.get(gram);
+        DeltaPostings delta = deltaPostings.get(gram);
+        return (base != null ? base.length : 0) + (delta != null ? delta.size : 0);
+    }
+
+    // Caller holds the write lock
+    private void setBase(Map<Long, int[]> postings) {
+        basePostings = postings;
+        basePostingCount = postings.values().stream().mapToLong(ids -> ids.length).sum();
+        deltaPostings = new HashMap<>();
+        deltaSize = 0;
+    }
+
+    private static Map<Long, int[]> buildPostings(Map<Integer, Entry> entries) {
+        // Count first so every posting array is allocated once at its final size
+        Map<Long, int[]> counts = new HashMap<>();
+        Map<Integer, long[]> gramsById = new HashMap<>(entries.size() * 2);
+        for (Entry entry : entries.values()) {
+            long[] grams = grams(entry);
+            gramsById.put(entry.id(), grams);
+            for (long gram : grams) {
+                counts.computeIfAbsent(gram, k -> new int[1])[0]++;
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(counts.size() * 2);
+        Map<Long, int[]> fill = new HashMap<>(counts.size() * 2);
+        counts.forEach((gram, count) -> {
+            postings.put(gram, new int[count[0]]);
+            fill.put(gram, new int[1]);
+        });
+        gramsById.forEach((id, grams) -> {
+            for (long gram : grams) {
+                postings.get(gram)[fill.get(gram)[0]++] = id;
+            }
+        });
+        postings.values().forEach(Arrays::sort);
+        return postings;
+    }
+
+    // Distinct trigrams of all three fields
+    private static long[] grams(Entry entry) {
+        long[] username = grams(lower(entry.username()));
+        long[] email = grams(lower(entry.email()));
+        long[] name = grams(lower(entry.name()));
+        long[] all = new long[username.length + email.length + name.length];
+        System.arraycopy(username, 0, all, 0, username.length);
+        System.arraycopy(email, 0, all, username.length, email.length);
+        System.arraycopy(name, 0, all, username.length + email.length, name.length);
+        return Arrays.stream(all).sorted().distinct().toArray();
+    }
+
+    private static long[] grams(String lower) {
+        if (lower == null || lower.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[lower.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16) | lower.charAt(i + 2);
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(int[] sorted, int id) {
+        return sorted != null && Arrays.binarySearch(sorted, id) >= 0;
+    }
+
+    // Sorted ids with spare capacity; new users mostly get the highest id, so adds are usually appends
+    private static final class DeltaPostings {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // False when the id is already present
+        boolean add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return false;
+            }
+            int at = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserSkillsChangedEvent;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap of user ids per skill, mirroring the user_skill table, so boolean skill queries are a few
+ * word-wise AND / OR / AND-NOT passes instead of a join per skill.
+ * <p>
+ * Ids come from an auto-increment column and are dense, which keeps plain {@link BitSet}s compact.
+ * Soft-deleted users keep their bits and are masked out by the set of live users at query time.
+ * <p>
+ * Events are applied once their transaction has committed. Writes made by other instances only show up
+ * through a periodic full rebuild, which scans into fresh bitmaps and swaps them in at once.
+ */
+@Component
+public class UserSkillIndex {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, BitSet> usersBySkill = new HashMap<>();
+
+    private BitSet liveUsers = new BitSet();
+
+    // Events carry UserChangedEvent or UserSkillsChangedEvent
+    private final IndexBuilder<Scan, Object> builder;
+
+    public UserSkillIndex(UserJdbcRepository userJdbcRepository) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.builder = new IndexBuilder<>("user skill index", lock.writeLock(), this::scan, this::install,
+                this::applyLocked);
+    }
+
+    private record Scan(BitSet liveUsers, Map<Long, BitSet> usersBySkill) {
+    }
+
+    // Built after startup data seeding; a query arriving earlier builds it itself
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        builder.startInBackground();
+    }
+
+    public boolean isReady() {
+        return builder.isBuilt();
+    }
+
+    // Waits for a build that is already running instead of starting another one
+    public void build() {
+        builder.buildIfNeeded();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.skill-index.rebuild-interval:300000}",
+            initialDelayString = "${app.users.skill-index.rebuild-interval:300000}")
+    public void rebuild() {
+        builder.rebuild();
+    }
+
+    private Scan scan() {
+        BitSet scannedUsers = new BitSet();
+        Map<Long, BitSet> scannedSkills = new HashMap<>();
+        userJdbcRepository.streamLiveUserIds(rs -> {
+            scannedUsers.set(toBit(rs.getLong(1)));
+        });
+        userJdbcRepository.streamUserSkills(rs -> {
+            scannedSkills.computeIfAbsent(rs.getLong("skill_id"), skill -> new BitSet())
+                    .set(toBit(rs.getLong("user_id")));
+        });
+        return new Scan(scannedUsers, scannedSkills);
+    }
+
+    // Caller holds the write lock
+    private void install(Scan scan) {
+        liveUsers = scan.liveUsers();
+        usersBySkill = scan.usersBySkill();
+    }
+
+    // Runs once the change is committed, so a rolled back write never reaches the index
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() == null || event.getType() == UserChangedEvent.Type.UPDATED) {
+            return;
+        }
+        apply(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserSkillsChanged(UserSkillsChangedEvent event) {
+        apply(event);
+    }
+
+    private void apply(Object event) {
+        lock.writeLock().lock();
+        try {
+            builder.record(event);
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock. Every event carries a complete state, so replaying one a rebuild scan
+    // already saw is harmless
+    private void applyLocked(Object event) {
+        if (event instanceof UserChangedEvent userChanged) {
+            liveUsers.set(toBit(userChanged.getUserId()), userChanged.getType() == UserChangedEvent.Type.CREATED);
+        } else if (event instanceof UserSkillsChangedEvent skillsChanged) {
+            if (skillsChanged.getDeletedSkillId() != null) {
+                usersBySkill.remove(skillsChanged.getDeletedSkillId());
+                return;
+            }
+            int user = toBit(skillsChanged.getUserId());
+            // Skills are few next to users, so clearing the bit everywhere is cheaper than a reverse map
+            usersBySkill.values().forEach(users -> users.clear(user));
+            skillsChanged.getSkillIds()
+                    .forEach(skill -> usersBySkill.computeIfAbsent(skill, s -> new BitSet()).set(user));
+        }
+    }
+
+    /**
+     * Live users holding every skill in {@code all}, at least one in {@code any} (ignored when empty)
+     * and none in {@code none}. The result is a private copy the caller may modify.
+     */
+    public BitSet query(Collection<Long> all, Collection<Long> any, Collection<Long> none) {
+        if (!isReady()) {
+            build();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) liveUsers.clone();
+            for (Long skill : all) {
+                result.and(usersOf(skill));
+            }
+            if (!any.isEmpty()) {
+                BitSet union = new BitSet();
+                any.forEach(skill -> union.or(usersOf(skill)));
+                result.and(union);
+            }
+            for (Long skill : none) {
+                result.andNot(usersOf(skill));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Live users holding the skill
+    public int countUsers(Long skillId) {
+        if (!isReady()) {
+            build();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet users = (BitSet) usersOf(skillId).clone();
+            users.and(liveUsers);
+            return users.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet usersOf(Long skill) {
+        return usersBySkill.getOrDefault(skill, EMPTY);
+    }
+
+    private static int toBit(long userId) {
+        return Math.toIntExact(userId);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.dto.response.UserSuggestion;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Prefix dictionary over lower-cased usernames and emails for typeahead.
+ * <p>
+ * Keys live in one sorted array, so a lookup is a binary search followed by a short forward scan.
+ * Writes go to a small sorted overlay that is merged into a fresh array once it grows. Readers take no locks;
+ * stale keys left behind by renames are skipped by checking them against the current user.
+ * <p>
+ * Only local events reach the overlay, so a periodic full rebuild picks up writes made by other instances.
+ */
+@Component
+public class UserSuggestIndex {
+
+    // Separates key and id in overlay keys so equal keys of different users do not collide
+    private static final char SEPARATOR = '\u0000';
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final int compactionThreshold;
+
+    private volatile Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<String, Integer> overlay = new ConcurrentSkipListMap<>();
+
+    private volatile Dictionary dictionary = new Dictionary(new String[0], new int[0]);
+
+    // Writers hold it; readers take no locks
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final IndexBuilder<Map<Integer, Entry>, UserChangedEvent> builder;
+
+    public UserSuggestIndex(UserJdbcRepository userJdbcRepository,
+                            @Value("${app.users.suggest.compaction-threshold:1000}") int compactionThreshold) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.compactionThreshold = compactionThreshold;
+        this.builder = new IndexBuilder<>("user suggest index", writeLock, this::scan, this::install, this::apply);
+    }
+
+    private record Entry(int id, String username, String email, String name, String avatarUrl) {
+
+        boolean hasKey(String key) {
+            return key.equals(lower(username)) || key.equals(lower(email));
+        }
+    }
+
+    // Parallel arrays sorted by key
+    private record Dictionary(String[] keys, int[] ids) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        builder.startInBackground();
+    }
+
+    public boolean isReady() {
+        return builder.isBuilt();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.suggest.rebuild-interval:300000}",
+            initialDelayString = "${app.users.suggest.rebuild-interval:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        builder.rebuild();
+    }
+
+    private Map<Integer, Entry> scan() {
+        Map<Integer, Entry> scanned = new ConcurrentHashMap<>();
+        userJdbcRepository.streamSearchFields(rs -> {
+            int id = Math.toIntExact(rs.getLong("id"));
+            scanned.put(id, new Entry(id, rs.getString("username"), rs.getString("email"),
+                    rs.getString("name"), rs.getString("user_avatar_url")));
+        });
+        return scanned;
+    }
+
+    // Caller holds the write lock
+    private void install(Map<Integer, Entry> scanned) {
+        entries = scanned;
+        compact();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUserId() == null || event.getUserId() > Integer.MAX_VALUE) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            builder.record(event);
+            apply(event);
+            // Compaction sorts every key, so let the overlay grow with the dictionary
+            if (overlay.size() > Math.max(compactionThreshold, dictionary.keys().length / 4)) {
+                compact();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Up to limit users whose username or email starts with the prefix, in key order
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        List<UserSuggestion> suggestions = new ArrayList<>(limit);
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return suggestions;
+        }
+        String lowerPrefix = prefix.trim().toLowerCase(Locale.ROOT);
+        Dictionary current = dictionary;
+        Set<Integer> seen = new HashSet<>();
+
+        int position = Arrays.binarySearch(current.keys(), lowerPrefix);
+        int i = position >= 0 ? position : -position - 1;
+        Iterator<Map.Entry<String, Integer>> recent =
+                overlay.subMap(lowerPrefix, true, lowerPrefix + Character.MAX_VALUE, true).entrySet().iterator();
+        Map.Entry<String, Integer> nextRecent = recent.hasNext() ? recent.next() : null;
+        // A prefix of a key sorts right before it, so the matches form one contiguous run in each structure;
+        // walk both runs in key order
+        while (suggestions.size() < limit) {
+            boolean baseHasNext = i < current.keys().length && current.keys()[i].startsWith(lowerPrefix);
+            String recentKey = nextRecent != null
+                    ? nextRecent.getKey().substring(0, nextRecent.getKey().indexOf(SEPARATOR))
+                    : null;
+            if (!baseHasNext && recentKey == null) {
+                break;
+            }
+            if (baseHasNext && (recentKey == null || current.keys()[i].compareTo(recentKey) <= 0)) {
+                add(current.keys()[i], current.ids()[i], seen, suggestions);
+                i++;
+            } else {
+                add(recentKey, nextRecent.getValue(), seen, suggestions);
+                nextRecent = recent.hasNext() ? recent.next() : null;
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void add(String key, int id, Set<Integer> seen, List<UserSuggestion> suggestions) {
+        Entry entry = entries.get(id);
+        // Skip keys of deleted users and old names of renamed ones
+        if (entry == null || !entry.hasKey(key) || !seen.add(id)) {
+            return;
+        }
+        suggestions.add(new UserSuggestion((long) id, entry.username(), entry.name(), entry.avatarUrl()));
+    }
+
+    // Caller holds the write lock
+    private void apply(UserChangedEvent event) {
+        int id = event.getUserId().intValue();
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            entries.remove(id);
+            return;
+        }
+        Entry entry = new Entry(id, event.getUsername(), event.getEmail(), event.getName(), event.getUserAvatarUrl());
+        entries.put(id, entry);
+        addToOverlay(lower(entry.username()), id);
+        addToOverlay(lower(entry.email()), id);
+    }
+
+    private void addToOverlay(String key, int id) {
+        if (key != null) {
+            overlay.put(key + SEPARATOR + id, id);
+        }
+    }
+
+    // Caller holds the write lock. Readers may briefly see the new array together with the old overlay,
+    // which only repeats keys and is deduplicated by id.
+    private void compact() {
+        List<Map.Entry<String, Integer>> keys = new ArrayList<>(entries.size() * 2);
+        for (Entry entry : entries.values()) {
+            if (entry.username() != null) {
+                keys.add(Map.entry(lower(entry.username()), entry.id()));
+            }
+            if (entry.email() != null) {
+                keys.add(Map.entry(lower(entry.email()), entry.id()));
+            }
+        }
+        keys.sort(Map.Entry.comparingByKey());
+        String[] sortedKeys = new String[keys.size()];
+        int[] ids = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            sortedKeys[i] = keys.get(i).getKey();
+            ids[i] = keys.get(i).getValue();
+        }
+        dictionary = new Dictionary(sortedKeys, ids);
+        overlay.clear();
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
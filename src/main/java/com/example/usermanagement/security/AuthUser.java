@@ -0,0 +1,83 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.AppPermission;
+import com.example.usermanagement.enums.UserStatus;
+import com.example.usermanagement.util.VerifiedToken;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated principal carrying the user id, security version and the role's permission bitset alongside
+ * the usual UserDetails data. It can be built from a database row or straight from verified token claims.
+ */
+@Getter
+public class AuthUser implements UserDetails {
+
+    private final Long id;
+
+    private final String username;
+
+    private final String password;
+
+    private final String role;
+
+    private final int securityVersion;
+
+    private final boolean enabled;
+
+    // Compiled by RoleRegistry; see AppPermission for the bit layout
+    private final long permissions;
+
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public AuthUser(Long id, String username, String password, String role, int securityVersion, boolean enabled,
+                    long permissions) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.securityVersion = securityVersion;
+        this.enabled = enabled;
+        this.permissions = permissions;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    public AuthUser withPassword(String newPassword) {
+        return new AuthUser(id, username, newPassword, role, securityVersion, enabled, permissions);
+    }
+
+    public boolean hasPermission(AppPermission permission) {
+        return (permissions & permission.mask()) != 0;
+    }
+
+    public static AuthUser fromUser(User user, long permissions) {
+        return new AuthUser(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getRole().getName(),
+                user.getSecurityVersion() != null ? user.getSecurityVersion() : 0,
+                user.getStatus() != UserStatus.INACTIVE,
+                permissions
+        );
+    }
+
+    // Principal for the stateless path: no password and no database row behind it
+    public static AuthUser fromToken(VerifiedToken token, long permissions) {
+        return new AuthUser(
+                token.getUserId(),
+                token.getUsername(),
+                null,
+                token.getRole(),
+                token.getSecurityVersion(),
+                true,
+                permissions
+        );
+    }
+}
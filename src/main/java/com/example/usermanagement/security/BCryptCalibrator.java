@@ -0,0 +1,57 @@
+package com.example.usermanagement.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+
+/**
+ * Picks the BCrypt work factor for this host from a latency target.
+ * Each extra round doubles the cost, so one measurement at the minimum strength is enough to extrapolate.
+ */
+@Slf4j
+public final class BCryptCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private static final int SAMPLES = 3;
+
+    private BCryptCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Warm up the JIT with cheap rounds so the measurement reflects steady state
+        for (int i = 0; i < 5; i++) {
+            BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+        }
+
+        double baseMillis = measure(minStrength);
+        int strength = minStrength;
+        while (strength < maxStrength && baseMillis * (1L << (strength + 1 - minStrength)) <= targetMillis) {
+            strength++;
+        }
+
+        double expectedMillis = baseMillis * (1L << (strength - minStrength));
+        if (expectedMillis > targetMillis) {
+            log.warn("BCrypt strength {} takes ~{} ms on this host, above the {} ms target; using the minimum",
+                    strength, Math.round(expectedMillis), targetMillis);
+        } else {
+            log.info("Calibrated BCrypt strength {} (~{} ms per hash, target {} ms)",
+                    strength, Math.round(expectedMillis), targetMillis);
+        }
+        return strength;
+    }
+
+    // Median of a few runs, in milliseconds
+    private static double measure(int strength) {
+        long[] durations = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String salt = BCrypt.gensalt(strength);
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations[SAMPLES / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.enums.AppPermission;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Answers {@code hasPermission(null, 'USER_WRITE')} from the permission bitset carried by {@link AuthUser}.
+ * Permissions are global, so a check is one map lookup and one bit test.
+ * <p>
+ * {@code hasPermission(#id, 'User', 'USER_WRITE')} additionally lets a user read or edit their own record.
+ */
+@Component
+public class BitsetPermissionEvaluator implements PermissionEvaluator {
+
+    public static final String USER_TARGET = "User";
+
+    // What a user may do to their own record without holding the permission
+    private static final Set<AppPermission> SELF_PERMISSIONS = EnumSet.of(AppPermission.USER_READ,
+            AppPermission.USER_WRITE);
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return authUser(authentication)
+                .flatMap(user -> resolve(permission).map(user::hasPermission))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+                                 Object permission) {
+        Optional<AuthUser> user = authUser(authentication);
+        Optional<AppPermission> resolved = resolve(permission);
+        if (user.isEmpty() || resolved.isEmpty()) {
+            return false;
+        }
+        if (user.get().hasPermission(resolved.get())) {
+            return true;
+        }
+        return USER_TARGET.equals(targetType) && targetId != null && targetId.equals(user.get().getId())
+                && SELF_PERMISSIONS.contains(resolved.get());
+    }
+
+    // Anonymous and non-AuthUser principals hold no permissions
+    private static Optional<AuthUser> authUser(Authentication authentication) {
+        return authentication != null && authentication.getPrincipal() instanceof AuthUser user
+                ? Optional.of(user)
+                : Optional.empty();
+    }
+
+    // Unknown names are denied rather than rejected, like a permission no role holds
+    private static Optional<AppPermission> resolve(Object permission) {
+        if (permission instanceof AppPermission appPermission) {
+            return Optional.of(appPermission);
+        }
+        return permission instanceof String name ? AppPermission.fromName(name) : Optional.empty();
+    }
+}
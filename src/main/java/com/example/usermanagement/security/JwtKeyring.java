@@ -0,0 +1,325 @@
+package com.example.usermanagement.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Signing and verification keys shared by every node, identified by the JWT "kid" header.
+ * Keys come from app.jwt.keys.* properties and/or a keyring file:
+ * <pre>
+ * keys.2026-10.secret=&lt;base64, at least 256 bits&gt;          # HS256
+ * keys.2026-11.algorithm=ES256
+ * keys.2026-11.private-key=&lt;PKCS#8 PEM or base64 DER&gt;  # or private-key-file; omit for verify-only keys
+ * keys.2026-11.public-key=&lt;X.509 PEM or base64 DER&gt;    # or public-key-file
+ * keys.2026-11.activate-at=2026-11-01T00:00:00Z   # optional, signing starts at this instant
+ * keys.2026-11.retire-at=2027-01-01T00:00:00Z     # optional, verification stops at this instant
+ * </pre>
+ * The newest activated key signs; every key that is not retired verifies, including keys scheduled for later,
+ * so nodes can pick up a new key before any of them starts signing with it.
+ * Public halves of ES256 keys are published as a JWK set for services that verify tokens themselves.
+ * With no keys configured, app.jwt.secret is used as the single HS256 key "default",
+ * or an ephemeral ES256 key pair is generated when app.jwt.algorithm is ES256.
+ * app.jwt.secret comes from the JWT_SECRET environment variable and must always be set, since cursor
+ * tokens derive their key from it too; startup fails when it is missing, too short or the old sample value.
+ */
+@Component
+@Slf4j
+public class JwtKeyring {
+
+    private static final String DEFAULT_KID = "default";
+
+    private static final String ES256 = "ES256";
+
+    // Shipped in application.yml by earlier versions, so it must be treated as public
+    private static final String SAMPLE_SECRET = "mySecretKey12345678901234567890123456789012345678901234567890";
+
+    // HS256 needs a key of at least 256 bits
+    private static final int MIN_SECRET_BYTES = 32;
+
+    // app.jwt.keys.<kid>.<attribute>
+    private static final Bindable<Map<String, Map<String, String>>> KEY_PROPERTIES = Bindable.of(
+            ResolvableType.forClassWithGenerics(Map.class, ResolvableType.forClass(String.class),
+                    ResolvableType.forClassWithGenerics(Map.class, String.class, String.class)));
+
+    private final Environment environment;
+
+    private final String fallbackSecret;
+
+    private final String keyringFile;
+
+    private final String defaultAlgorithm;
+
+    // Generated once when ES256 is requested without configured keys; only usable by a single node
+    private JwtKey ephemeralKey;
+
+    private volatile List<JwtKey> keys = List.of();
+
+    private volatile JwtKey signingKey;
+
+    private volatile Map<String, JwtKey> verificationKeys = Map.of();
+
+    private volatile List<Map<String, Object>> publicJwks = List.of();
+
+    public JwtKeyring(Environment environment,
+                      @Value("${app.jwt.secret:}") String fallbackSecret,
+                      @Value("${app.jwt.keyring-file:}") String keyringFile,
+                      @Value("${app.jwt.algorithm:HS256}") String defaultAlgorithm) {
+        this.environment = environment;
+        this.fallbackSecret = fallbackSecret;
+        this.keyringFile = keyringFile;
+        this.defaultAlgorithm = defaultAlgorithm;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.keys = loadKeys();
+        rotate();
+        if (signingKey == null) {
+            throw new IllegalStateException("JWT keyring has no active signing key");
+        }
+    }
+
+    public JwtKey getSigningKey() {
+        return signingKey;
+    }
+
+    // Null when the kid is unknown or retired
+    public JwtKey getVerificationKey(String kid) {
+        return verificationKeys.get(kid != null ? kid : signingKey.kid());
+    }
+
+    public boolean isTrusted(String kid) {
+        return getVerificationKey(kid) != null;
+    }
+
+    // JWK entries for every asymmetric key that still verifies: the signing key plus previous and upcoming ones
+    public List<Map<String, Object>> getPublicJwks() {
+        return publicJwks;
+    }
+
+    // Reload the keyring file and re-evaluate which key signs, so scheduled rotations take effect on time
+    @Scheduled(fixedDelayString = "${app.jwt.keyring-refresh:60000}")
+    public void refresh() {
+        try {
+            this.keys = loadKeys();
+        } catch (RuntimeException e) {
+            log.error("Failed to reload JWT keyring, keeping previous keys: {}", e.getMessage());
+        }
+        rotate();
+    }
+
+    private void rotate() {
+        Instant now = Instant.now();
+        Map<String, JwtKey> verification = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        JwtKey active = null;
+        for (JwtKey key : keys) {
+            if (key.isRetired(now)) {
+                continue;
+            }
+            verification.put(key.kid(), key);
+            if (key.verificationKey() instanceof ECPublicKey publicKey) {
+                jwks.add(toJwk(key.kid(), publicKey));
+            }
+            if (key.canSign() && !key.activateAt().isAfter(now)) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            log.error("No activated JWT signing key at {}, keeping {}", now,
+                    signingKey != null ? signingKey.kid() : null);
+            active = signingKey;
+        }
+        if (active != null && (signingKey == null || !signingKey.kid().equals(active.kid()))) {
+            log.info("JWT signing key is now '{}'", active.kid());
+        }
+        this.verificationKeys = Collections.unmodifiableMap(verification);
+        this.publicJwks = List.copyOf(jwks);
+        this.signingKey = active;
+    }
+
+    private List<JwtKey> loadKeys() {
+        validateSecret(fallbackSecret);
+        Map<String, Map<String, String>> definitions = new LinkedHashMap<>();
+        Binder.get(environment)
+                .bind("app.jwt.keys", KEY_PROPERTIES)
+                .ifBound(definitions::putAll);
+        if (keyringFile != null && !keyringFile.isBlank()) {
+            definitions.putAll(readKeyringFile(Path.of(keyringFile)));
+        }
+
+        List<JwtKey> loaded = new ArrayList<>();
+        if (definitions.isEmpty() && ES256.equalsIgnoreCase(defaultAlgorithm)) {
+            loaded.add(ephemeralKey());
+        } else if (definitions.isEmpty()) {
+            loaded.add(JwtKey.hmac(DEFAULT_KID, Keys.hmacShaKeyFor(fallbackSecret.getBytes(StandardCharsets.UTF_8)),
+                    Instant.EPOCH, null));
+        } else {
+            definitions.forEach((kid, attributes) -> loaded.add(parseKey(kid, attributes)));
+        }
+        loaded.sort(Comparator.comparing(JwtKey::activateAt));
+        return List.copyOf(loaded);
+    }
+
+    static void validateSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.jwt.secret is not set; provide it through the JWT_SECRET environment variable");
+        }
+        if (secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.jwt.secret must be at least " + MIN_SECRET_BYTES * 8 + " bits long");
+        }
+        if (secret.equals(SAMPLE_SECRET)) {
+            throw new IllegalStateException("app.jwt.secret is the public sample value; generate a new random secret");
+        }
+    }
+
+    private synchronized JwtKey ephemeralKey() {
+        if (ephemeralKey == null) {
+            KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+            ephemeralKey = new JwtKey("ephemeral-" + Instant.now().getEpochSecond(),
+                    pair.getPrivate(), pair.getPublic(), Instant.EPOCH, null);
+            log.warn("No JWT keys configured, generated ephemeral ES256 key '{}'; tokens will not survive a restart",
+                    ephemeralKey.kid());
+        }
+        return ephemeralKey;
+    }
+
+    private static JwtKey parseKey(String kid, Map<String, String> attributes) {
+        Instant activateAt = parseInstant(attributes.get("activate-at"), Instant.EPOCH);
+        Instant retireAt = parseInstant(attributes.get("retire-at"), null);
+        String algorithm = attributes.getOrDefault("algorithm", "HS256").trim();
+
+        if (ES256.equalsIgnoreCase(algorithm)) {
+            byte[] publicKey = readKeyMaterial(kid, attributes, "public-key");
+            if (publicKey == null) {
+                throw new IllegalStateException("JWT key '" + kid + "' has no public-key");
+            }
+            byte[] privateKey = readKeyMaterial(kid, attributes, "private-key");
+            try {
+                KeyFactory factory = KeyFactory.getInstance("EC");
+                return new JwtKey(kid,
+                        privateKey != null ? factory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)) : null,
+                        factory.generatePublic(new X509EncodedKeySpec(publicKey)),
+                        activateAt, retireAt);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("JWT key '" + kid + "' is not a valid EC key pair", e);
+            }
+        }
+
+        String secret = attributes.get("secret");
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("JWT key '" + kid + "' has no secret");
+        }
+        Key key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret.trim()));
+        return JwtKey.hmac(kid, key, activateAt, retireAt);
+    }
+
+    // Value of <name>, or contents of <name>-file; PEM armour and whitespace are stripped
+    private static byte[] readKeyMaterial(String kid, Map<String, String> attributes, String name) {
+        String value = attributes.get(name);
+        String file = attributes.get(name + "-file");
+        if ((value == null || value.isBlank()) && file != null && !file.isBlank()) {
+            try {
+                value = Files.readString(Path.of(file.trim()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + name + " of JWT key '" + kid + "'", e);
+            }
+        }
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String base64 = value.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(String kid, ECPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", ES256);
+        jwk.put("x", toCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", toCoordinate(publicKey.getW().getAffineY()));
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    // Unsigned, left-padded 32-byte big-endian value as required by RFC 7518 for P-256
+    private static String toCoordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static Map<String, Map<String, String>> readKeyringFile(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read JWT keyring file " + path, e);
+        }
+        Map<String, Map<String, String>> definitions = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            // keys.<kid>.<attribute>
+            String[] parts = name.split("\\.", 3);
+            if (parts.length == 3 && parts[0].equals("keys")) {
+                definitions.computeIfAbsent(parts[1], k -> new HashMap<>()).put(parts[2], properties.getProperty(name));
+            }
+        }
+        return definitions;
+    }
+
+    private static Instant parseInstant(String value, Instant defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : Instant.parse(value.trim());
+    }
+
+    public record JwtKey(String kid, Key signingKey, Key verificationKey, Instant activateAt, Instant retireAt) {
+
+        static JwtKey hmac(String kid, Key secret, Instant activateAt, Instant retireAt) {
+            return new JwtKey(kid, secret, secret, activateAt, retireAt);
+        }
+
+        public boolean canSign() {
+            return signingKey != null;
+        }
+
+        public boolean isRetired(Instant now) {
+            return retireAt != null && !retireAt.isAfter(now);
+        }
+    }
+}
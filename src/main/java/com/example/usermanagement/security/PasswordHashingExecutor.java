@@ -0,0 +1,84 @@
+package com.example.usermanagement.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, size-bounded pool for password hashing so a login burst cannot pin every Tomcat worker on BCrypt.
+ * Deliberately not exposed as an Executor bean, which would replace Spring Boot's applicationTaskExecutor.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer waitTimer;
+
+    private final Timer hashTimer;
+
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(@Value("${app.security.hashing.pool-size:0}") int poolSize,
+                                   @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a thread").register(meterRegistry);
+        Gauge.builder("hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing tasks currently running").register(meterRegistry);
+        this.waitTimer = Timer.builder("hashing.wait")
+                .description("Time spent queued before hashing started")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.hashTimer = Timer.builder("hashing.duration")
+                .description("Time spent hashing or verifying a password")
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.rejected = Counter.builder("hashing.rejected")
+                .description("Hashing tasks refused because the queue was full").register(meterRegistry);
+
+        log.info("Password hashing pool started with {} threads and queue capacity {}", threads, queueCapacity);
+    }
+
+    // Throws RejectedExecutionException right away when the queue is full
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
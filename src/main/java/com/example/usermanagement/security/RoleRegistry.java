@@ -0,0 +1,145 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.entities.Permission;
+import com.example.usermanagement.entities.Role;
+import com.example.usermanagement.enums.AppPermission;
+import com.example.usermanagement.repositories.RoleRepository;
+import com.example.usermanagement.util.ResourceVersion;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable in-memory copy of the roles table with their permissions.
+ * Roles change rarely, so every read is served from the current snapshot and every role mutation
+ * replaces the snapshot as a whole. Callers get fresh detached {@link Role} copies, never shared instances.
+ * Each role's permissions are also compiled into an {@link AppPermission} bitset for authorization checks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private final UserDetailsCache userDetailsCache;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), ResourceVersion.of(null));
+
+    public record PermissionView(String name, String description) {
+    }
+
+    public record RoleView(Long id, String name, String description, Set<PermissionView> permissions,
+                           long permissionBits, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        public Set<String> permissionNames() {
+            return permissions.stream().map(PermissionView::name).collect(Collectors.toUnmodifiableSet());
+        }
+
+        // Detached entity carrying the id, usable as the target of a User.role association
+        public Role toEntity() {
+            Set<Permission> copies = new HashSet<>();
+            permissions.forEach(p -> copies.add(new Permission(p.name(), p.description())));
+            return Role.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .permissions(copies)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    // version validates the whole role list
+    private record Snapshot(Map<Long, RoleView> byId, Map<String, RoleView> byName, ResourceVersion version) {
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    // Called after every role mutation; also picks up changes made by other instances
+    @Scheduled(fixedDelayString = "${app.security.role-registry.refresh:300000}",
+            initialDelayString = "${app.security.role-registry.refresh:300000}")
+    public void reload() {
+        List<RoleView> roles = roleRepository.findAllWithPermissions().stream()
+                .map(RoleRegistry::toView)
+                .sorted(Comparator.comparing(RoleView::id))
+                .toList();
+        LocalDateTime lastModified = roles.stream().map(RoleView::updatedAt).filter(Objects::nonNull)
+                .max(Comparator.naturalOrder()).orElse(null);
+        // Ids and update times cover additions, deletions and edits of any role
+        Object[] parts = roles.stream().flatMap(r -> Stream.of(r.id(), r.updatedAt())).toArray();
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(
+                roles.stream().collect(Collectors.toUnmodifiableMap(RoleView::id, Function.identity())),
+                roles.stream().collect(Collectors.toUnmodifiableMap(RoleView::name, Function.identity())),
+                ResourceVersion.of(lastModified, parts));
+        // Cached principals carry the old bitset; token-based ones read the new snapshot on the next request
+        roles.forEach(role -> {
+            RoleView old = previous.byName().get(role.name());
+            if (old != null && old.permissionBits() != role.permissionBits()) {
+                userDetailsCache.evictRole(role.name());
+            }
+        });
+        log.debug("Role registry loaded {} roles", roles.size());
+    }
+
+    public Optional<RoleView> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    public Optional<RoleView> findByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(snapshot.byName().get(name));
+    }
+
+    public boolean existsByName(String name) {
+        return name != null && snapshot.byName().containsKey(name);
+    }
+
+    public Collection<RoleView> getRoles() {
+        return snapshot.byId().values();
+    }
+
+    // Bitset for principals of the role; unknown roles hold no permissions
+    public long getPermissionBits(String roleName) {
+        RoleView role = roleName == null ? null : snapshot.byName().get(roleName);
+        return role != null ? role.permissionBits() : 0L;
+    }
+
+    public ResourceVersion getVersion() {
+        return snapshot.version();
+    }
+
+    private static RoleView toView(Role role) {
+        Set<PermissionView> permissions = role.getPermissions() == null ? Set.of()
+                : role.getPermissions().stream()
+                .map(p -> new PermissionView(p.getName(), p.getDescription()))
+                .collect(Collectors.toUnmodifiableSet());
+        // Permissions without a bit (added straight to the table) cannot be checked and are left out
+        long bits = permissions.stream()
+                .map(p -> AppPermission.fromName(p.name()))
+                .flatMap(Optional::stream)
+                .mapToLong(AppPermission::mask)
+                .reduce(0L, (a, b) -> a | b);
+        return new RoleView(role.getId(), role.getName(), role.getDescription(), permissions, bits,
+                role.getCreatedAt(), role.getUpdatedAt());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of users.security_version for every user whose version was ever bumped.
+ * Users missing from the table are at version 0, so the table stays small.
+ * A token is only accepted while its "sv" claim is at least the current version.
+ * Bumps are applied locally at once; bumps made by other instances arrive with the periodic reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SecurityVersionRegistry {
+
+    private final UserRepository userRepository;
+
+    private final ConcurrentHashMap<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    // Load before the web server starts so no request is checked against an empty table
+    @PostConstruct
+    public void load() {
+        reload();
+        log.info("Loaded security versions for {} users", versions.size());
+    }
+
+    // Versions only grow, so merging with max never undoes a local bump that raced with the query
+    @Scheduled(fixedDelayString = "${app.security.security-version.refresh:15000}",
+            initialDelayString = "${app.security.security-version.refresh:15000}")
+    public void reload() {
+        userRepository.findBumpedSecurityVersions()
+                .forEach(v -> versions.merge(v.getId(), v.getSecurityVersion(), Math::max));
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(userId, 0);
+    }
+
+    // Invalidate every token issued to the user so far
+    public void bump(Long userId) {
+        userRepository.incrementSecurityVersion(userId);
+        userRepository.findSecurityVersionById(userId)
+                .ifPresent(version -> versions.merge(userId, version, Math::max));
+    }
+
+    // Pick up versions a set-based update has already incremented in the database
+    public void refresh(Collection<Long> userIds) {
+        userRepository.findSecurityVersionsByIds(userIds)
+                .forEach(v -> versions.merge(v.getId(), v.getSecurityVersion(), Math::max));
+    }
+
+    // Invalidate every token issued to users holding the role
+    public void bumpRole(Long roleId) {
+        userRepository.incrementSecurityVersionByRole(roleId);
+        userRepository.findSecurityVersionsByRole(roleId)
+                .forEach(v -> versions.merge(v.getId(), v.getSecurityVersion(), Math::max));
+    }
+}
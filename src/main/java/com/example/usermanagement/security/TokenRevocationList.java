@@ -0,0 +1,209 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.repositories.RevokedTokenJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Revoked token ids (jti), kept only until the tokens would have expired anyway.
+ * Entries live in a ring of buckets indexed by token expiry. Each bucket has a Bloom filter in front of an exact set,
+ * so the common "not revoked" answer costs a few bit tests and no allocation.
+ * A bucket is dropped as a whole once every token in it has expired.
+ * <p>
+ * Every revocation is also written to the revoked_tokens table, which decides whether a token was already
+ * revoked by any instance. The table is loaded on startup and polled for revocations made elsewhere, so the
+ * in-memory check stays free of database access.
+ */
+@Component
+// The revoked_tokens table is created by Hibernate's schema update, which must run before load()
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class TokenRevocationList {
+
+    private static final int HASH_FUNCTIONS = 4;
+
+    private final long bucketMillis;
+
+    private final int bloomBits;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    private final RevokedTokenJdbcRepository revokedTokenRepository;
+
+    // Re-read revocations this far before the last sync, covering clock skew and late commits
+    private final long syncOverlapMillis;
+
+    private volatile long lastSync;
+
+    public TokenRevocationList(@Value("${app.security.revocation.bucket-width:1h}") Duration bucketWidth,
+                               @Value("${app.security.revocation.bloom-bits:65536}") int bloomBits,
+                               @Value("${app.jwt.access-token-validity:15m}") Duration accessTokenValidity,
+                               @Value("${app.jwt.refresh-token-validity:14d}") Duration refreshTokenValidity,
+                               RevokedTokenJdbcRepository revokedTokenRepository,
+                               @Value("${app.security.revocation.sync-overlap:1m}") Duration syncOverlap) {
+        if (Integer.bitCount(bloomBits) != 1 || bloomBits < 64) {
+            throw new IllegalArgumentException("app.security.revocation.bloom-bits must be a power of two >= 64");
+        }
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.syncOverlapMillis = syncOverlap.toMillis();
+        this.bucketMillis = bucketWidth.toMillis();
+        this.bloomBits = bloomBits;
+        long maxValidity = Math.max(accessTokenValidity.toMillis(), refreshTokenValidity.toMillis());
+        // One bucket per window a live token can expire in, plus one of slack for the window being filled
+        this.buckets = new AtomicReferenceArray<>((int) (maxValidity / bucketMillis) + 2);
+    }
+
+    // Load before the web server starts so a restart forgets no revocation
+    @PostConstruct
+    public void load() {
+        lastSync = 0;
+        sync();
+        log.info("Loaded {} revoked token ids", size());
+    }
+
+    // Pick up revocations made by other instances
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-interval:10000}",
+            initialDelayString = "${app.security.revocation.sync-interval:10000}")
+    public void sync() {
+        long now = System.currentTimeMillis();
+        long since = lastSync == 0 ? 0 : lastSync - syncOverlapMillis;
+        revokedTokenRepository.streamRevokedSince(since, now, rs -> {
+            remember(rs.getString("jti"), rs.getLong("expires_at"));
+        });
+        lastSync = now;
+    }
+
+    // Returns false when the id was already revoked here or on any other instance,
+    // which lets callers detect refresh token reuse
+    public boolean revoke(String tokenId, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (tokenId == null || expiresAt <= now) {
+            return true;
+        }
+        boolean inserted = revokedTokenRepository.insert(tokenId, expiresAt, now);
+        return remember(tokenId, expiresAt) && inserted;
+    }
+
+    // Adds the id to the in-memory buckets; false when it was already there
+    private boolean remember(String tokenId, long expiresAt) {
+        long epoch = expiresAt / bucketMillis;
+        int slot = (int) (epoch % buckets.length());
+        Bucket bucket = buckets.get(slot);
+        if (bucket == null || bucket.epoch != epoch) {
+            synchronized (this) {
+                bucket = buckets.get(slot);
+                if (bucket == null || bucket.epoch < epoch) {
+                    bucket = new Bucket(epoch, bloomBits);
+                    buckets.set(slot, bucket);
+                } else if (bucket.epoch > epoch) {
+                    // Expiry further out than the ring was sized for; should not happen with configured validities
+                    log.warn("Token {} expires beyond the revocation window and cannot be tracked", tokenId);
+                    return true;
+                }
+            }
+        }
+        return bucket.add(tokenId);
+    }
+
+    // Hot path for every authenticated request: O(1) and allocation-free
+    public boolean isRevoked(String tokenId, long expiresAt) {
+        if (tokenId == null) {
+            return false;
+        }
+        long epoch = expiresAt / bucketMillis;
+        Bucket bucket = buckets.get((int) (epoch % buckets.length()));
+        return bucket != null && bucket.epoch == epoch && bucket.mightContain(tokenId) && bucket.exact.contains(tokenId);
+    }
+
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                size += bucket.exact.size();
+            }
+        }
+        return size;
+    }
+
+    // Release buckets whose tokens have all expired, and the matching rows
+    @Scheduled(fixedDelayString = "${app.security.revocation.purge-interval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        try {
+            revokedTokenRepository.deleteExpired(now);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired revoked tokens: {}", e.getMessage());
+        }
+        long currentEpoch = now / bucketMillis;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch < currentEpoch) {
+                buckets.compareAndSet(i, bucket, null);
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+
+        private final AtomicLongArray bloom;
+
+        private final int mask;
+
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        private Bucket(long epoch, int bits) {
+            this.epoch = epoch;
+            this.bloom = new AtomicLongArray(bits / 64);
+            this.mask = bits - 1;
+        }
+
+        private boolean add(String tokenId) {
+            boolean added = exact.add(tokenId);
+            int h1 = tokenId.hashCode();
+            int h2 = secondaryHash(tokenId);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (h1 + i * h2) & mask;
+                long word;
+                do {
+                    word = bloom.get(bit >>> 6);
+                } while ((word & (1L << bit)) == 0 && !bloom.compareAndSet(bit >>> 6, word, word | (1L << bit)));
+            }
+            return added;
+        }
+
+        private boolean mightContain(String tokenId) {
+            int h1 = tokenId.hashCode();
+            int h2 = secondaryHash(tokenId);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bloom.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, forced odd so double hashing visits distinct bits
+        private static int secondaryHash(String value) {
+            int hash = 0x811c9dc5;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x01000193;
+            }
+            return hash | 1;
+        }
+    }
+}
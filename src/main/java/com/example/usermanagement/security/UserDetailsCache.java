@@ -0,0 +1,61 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Principals loaded by UserDetailsServiceImpl, keyed by username.
+ * Every write path that changes a user or a role must evict the affected entries.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final ExpiringLruCache<String, AuthUser> cache;
+
+    private final long ttlMillis;
+
+    public UserDetailsCache(@Value("${app.security.user-details-cache.max-size:10000}") int maxSize,
+                            @Value("${app.security.user-details-cache.ttl:5m}") Duration ttl) {
+        this.cache = new ExpiringLruCache<>(maxSize);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public AuthUser get(String username) {
+        return cache.get(username);
+    }
+
+    public void put(AuthUser user) {
+        cache.put(user.getUsername(), user, System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    // For renames where the previous username is not at hand; scans the cache
+    public void evictUser(Long userId) {
+        cache.invalidateIf(user -> userId.equals(user.getId()));
+    }
+
+    public void evictUsers(Collection<Long> userIds) {
+        Set<Long> ids = new HashSet<>(userIds);
+        cache.invalidateIf(user -> ids.contains(user.getId()));
+    }
+
+    // Bulk eviction after a role is renamed or deleted
+    public void evictRole(String roleName) {
+        cache.invalidateIf(user -> user.getRole().equals(roleName));
+    }
+
+    public ExpiringLruCache<String, AuthUser> getCache() {
+        return cache;
+    }
+}
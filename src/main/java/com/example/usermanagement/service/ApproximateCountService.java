@@ -0,0 +1,13 @@
+package com.example.usermanagement.service;
+
+import java.util.function.LongSupplier;
+
+public interface ApproximateCountService {
+    String USERS = "users";
+    String USER_SEARCH = "users:search:";
+    String ROLES = "roles";
+
+    long getCount(String key, LongSupplier counter);
+    void adjust(String key, long delta);
+    void markStale(String keyPrefix);
+}
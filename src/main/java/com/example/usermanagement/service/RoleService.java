@@ -3,18 +3,26 @@ package com.example.usermanagement.service;
 import com.example.usermanagement.dto.request.CreateRoleRequest;
 import com.example.usermanagement.dto.request.UpdateRoleRequest;
 import com.example.usermanagement.dto.response.RoleResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
+import com.example.usermanagement.util.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Set;
 
 public interface RoleService {
     RoleResponse createRole(CreateRoleRequest request);
     RoleResponse updateRole(Long id, UpdateRoleRequest request);
     void deleteRole(Long id);
+    List<String> getRolePermissions(Long id);
+    List<String> updateRolePermissions(Long id, Set<String> permissions);
     RoleResponse getRoleById(Long id);
+    ResourceVersion getRoleVersion(Long id);
     RoleResponse getRoleByName(String name);
     List<RoleResponse> getAllRoles();
+    ResourceVersion getAllRolesVersion();
     Page<RoleResponse> getAllRoles(Pageable pageable);
+    SliceResponse<RoleResponse> getAllRolesSlice(Pageable pageable);
     boolean existsByName(String name);
 }
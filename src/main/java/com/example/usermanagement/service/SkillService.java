@@ -0,0 +1,21 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.request.SkillRequest;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.SkillResponse;
+import com.example.usermanagement.dto.response.UserResponse;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SkillService {
+    SkillResponse createSkill(SkillRequest request);
+    SkillResponse updateSkill(Long id, SkillRequest request);
+    void deleteSkill(Long id);
+    SkillResponse getSkillById(Long id);
+    List<SkillResponse> getAllSkills();
+    List<SkillResponse> getUserSkills(Long userId);
+    List<SkillResponse> replaceUserSkills(Long userId, Set<Long> skillIds);
+    CursorPageResponse<UserResponse> findUsersBySkills(List<String> all, List<String> any, List<String> none,
+                                                       String cursor, int pageSize);
+}
@@ -0,0 +1,6 @@
+package com.example.usermanagement.service;
+
+public interface UserArchiveService {
+    // Returns the number of users moved to users_archive
+    int archiveDeletedUsers();
+}
@@ -0,0 +1,8 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.request.BulkUserRequest;
+import com.example.usermanagement.dto.response.BulkUserResponse;
+
+public interface UserBulkService {
+    BulkUserResponse apply(BulkUserRequest request);
+}
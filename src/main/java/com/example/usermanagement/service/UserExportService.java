@@ -0,0 +1,11 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.request.UserExportFilter;
+import com.example.usermanagement.enums.DataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    void exportUsers(UserExportFilter filter, DataFormat format, OutputStream out) throws IOException;
+}
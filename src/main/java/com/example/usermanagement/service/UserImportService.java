@@ -0,0 +1,12 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.response.ImportJobResponse;
+import com.example.usermanagement.enums.DataFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportJobResponse startImport(InputStream body, DataFormat format) throws IOException;
+    ImportJobResponse getJob(String id);
+}
@@ -1,21 +1,36 @@
 package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.request.CreateUserRequest;
+import com.example.usermanagement.dto.request.PatchUserRequest;
 import com.example.usermanagement.dto.request.UpdateUserRequest;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
+import com.example.usermanagement.dto.response.UserBatchResponse;
 import com.example.usermanagement.dto.response.UserResponse;
 import com.example.usermanagement.entities.User;
+import com.example.usermanagement.util.ResourceVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 public interface UserService {
     User createUser(CreateUserRequest request, MultipartFile imageFile) throws IOException;
+    UserResponse patchUser(Long id, PatchUserRequest request, Long expectedVersion);
     User updateUser(Long id, UpdateUserRequest request, MultipartFile imageFile) throws IOException;
     void deleteUser(Long id);
     UserResponse activateUser(Long id);
-    User getUserById(Long id);
+    UserResponse getUserById(Long id);
+    UserBatchResponse getUsersByIds(List<Long> ids);
+    Map<String, Object> getUserFields(Long id, String fields);
+    ResourceVersion getUserVersion(Long id);
     Page<UserResponse> getAllUsers(int pageNo, int pageSize, String sortBy, String sortDir);
     Page<UserResponse> searchUsers(String keyword, int pageNo, int pageSize, String sortBy, String sortDir);
+    SliceResponse<UserResponse> getAllUsersSlice(int pageNo, int pageSize, String sortBy, String sortDir);
+    SliceResponse<UserResponse> searchUsersSlice(String keyword, int pageNo, int pageSize, String sortBy, String sortDir);
+    CursorPageResponse<UserResponse> getAllUsers(String cursor, int pageSize, String sortBy, String sortDir);
+    CursorPageResponse<UserResponse> searchUsers(String keyword, String cursor, int pageSize, String sortBy, String sortDir);
     boolean isCurrentUser(Long userId);
 }
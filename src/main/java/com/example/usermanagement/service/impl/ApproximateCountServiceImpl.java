@@ -0,0 +1,139 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.service.ApproximateCountService;
+import com.example.usermanagement.util.ExpiringLruCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Totals for paged listings, computed once per filter and then served from memory.
+ * A stale total is still returned while a background thread recounts, so no request waits on COUNT(*)
+ * except the very first one for a filter.
+ */
+@Service
+@Slf4j
+public class ApproximateCountServiceImpl implements ApproximateCountService {
+
+    private final ExpiringLruCache<String, CountEntry> counts;
+
+    private final long ttlMillis;
+
+    private final long retentionMillis;
+
+    // Recounts are best effort: a single thread, and requests beyond the queue are dropped
+    private final ThreadPoolExecutor refresher;
+
+    public ApproximateCountServiceImpl(@Value("${app.pagination.count-cache.max-size:1000}") int maxSize,
+                                       @Value("${app.pagination.count-cache.ttl:30s}") Duration ttl,
+                                       @Value("${app.pagination.count-cache.retention:1h}") Duration retention) {
+        this.counts = new ExpiringLruCache<>(maxSize);
+        this.ttlMillis = ttl.toMillis();
+        this.retentionMillis = retention.toMillis();
+        this.refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "count-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static final class CountEntry {
+        private final String key;
+        private final AtomicLong value;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long refreshedAt;
+        private volatile boolean stale;
+
+        private CountEntry(String key, long value) {
+            this.key = key;
+            this.value = new AtomicLong(value);
+            this.refreshedAt = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public long getCount(String key, LongSupplier counter) {
+        CountEntry entry = counts.get(key);
+        if (entry == null) {
+            entry = new CountEntry(key, counter.getAsLong());
+            counts.put(key, entry, System.currentTimeMillis() + retentionMillis);
+            return entry.value.get();
+        }
+        if ((entry.stale || System.currentTimeMillis() - entry.refreshedAt > ttlMillis)
+                && entry.refreshing.compareAndSet(false, true)) {
+            refresh(entry, counter);
+        }
+        return entry.value.get();
+    }
+
+    @Override
+    public void adjust(String key, long delta) {
+        CountEntry entry = counts.get(key);
+        if (entry != null) {
+            entry.value.addAndGet(delta);
+        }
+    }
+
+    @Override
+    public void markStale(String keyPrefix) {
+        counts.forEachValue(entry -> {
+            if (entry.key.startsWith(keyPrefix)) {
+                entry.stale = true;
+            }
+        });
+    }
+
+    public ExpiringLruCache<String, ?> getCache() {
+        return counts;
+    }
+
+    // New users change the total by one; any write may move users in or out of a keyword filter
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.CREATED) {
+            adjust(USERS, 1);
+        } else if (event.getType() == UserChangedEvent.Type.DELETED) {
+            adjust(USERS, -1);
+        }
+        markStale(USER_SEARCH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh(CountEntry entry, LongSupplier counter) {
+        try {
+            refresher.execute(() -> {
+                try {
+                    entry.stale = false;
+                    entry.value.set(counter.getAsLong());
+                    entry.refreshedAt = System.currentTimeMillis();
+                    counts.put(entry.key, entry, entry.refreshedAt + retentionMillis);
+                } catch (RuntimeException e) {
+                    log.warn("Could not refresh count {}", entry.key, e);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+}
@@ -3,23 +3,48 @@ package com.example.usermanagement.service.impl;
 import com.example.usermanagement.dto.request.CreateRoleRequest;
 import com.example.usermanagement.dto.request.UpdateRoleRequest;
 import com.example.usermanagement.dto.response.RoleResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
+import com.example.usermanagement.entities.Permission;
 import com.example.usermanagement.entities.Role;
+import com.example.usermanagement.enums.AppPermission;
 import com.example.usermanagement.exception.RoleNotFoundException;
 import com.example.usermanagement.mapper.RoleMapper;
+import com.example.usermanagement.repositories.PermissionRepository;
 import com.example.usermanagement.repositories.RoleRepository;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.SecurityVersionRegistry;
+import com.example.usermanagement.security.UserDetailsCache;
+import com.example.usermanagement.service.ApproximateCountService;
 import com.example.usermanagement.service.RoleService;
+import com.example.usermanagement.util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RoleServiceImpl implements RoleService {
+    private static final String ADMIN_ROLE = "ADMIN";
+
     private final RoleRepository roleRepository;
+    private final UserJdbcRepository userJdbcRepository;
     private final RoleMapper roleMapper;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final ApproximateCountService approximateCountService;
+    private final RoleRegistry roleRegistry;
+    private final PermissionRepository permissionRepository;
 
     @Override
     public RoleResponse createRole(CreateRoleRequest request) {
@@ -27,7 +52,12 @@ public class RoleServiceImpl implements RoleService {
             throw new IllegalArgumentException("Role with name '" + request.getName() + "' already exists");
         }
         Role role = roleMapper.toEntity(request);
+        role.setPermissions(findPermissions(Arrays.stream(AppPermission.values())
+                .filter(AppPermission::isGrantedToNewRoles)
+                .collect(Collectors.toSet())));
         Role savedRole = roleRepository.save(role);
+        approximateCountService.adjust(ApproximateCountService.ROLES, 1);
+        roleRegistry.reload();
         return roleMapper.toResponse(savedRole);
     }
 
@@ -41,10 +71,18 @@ public class RoleServiceImpl implements RoleService {
             throw new IllegalArgumentException("Role with name '" + request.getName() + "' already exists");
         }
 
+        String previousName = existing.getName();
+        boolean renamed = !previousName.equals(request.getName());
         existing.setName(request.getName());
         existing.setDescription(request.getDescription());
 
         Role updatedRole = roleRepository.save(existing);
+        // Issued tokens carry the old role name
+        if (renamed) {
+            securityVersionRegistry.bumpRole(id);
+        }
+        userDetailsCache.evictRole(previousName);
+        roleRegistry.reload();
         return roleMapper.toResponse(updatedRole);
     }
 
@@ -52,37 +90,107 @@ public class RoleServiceImpl implements RoleService {
     public void deleteRole(Long id) {
         Role role = roleRepository.findById(id)
                 .orElseThrow(() -> new RoleNotFoundException(id));
+        if (userJdbcRepository.existsByRoleId(id)) {
+            throw new IllegalArgumentException("Role '" + role.getName()
+                    + "' is still assigned to users; move them with REASSIGN_ROLE in POST /api/users/bulk first");
+        }
+        securityVersionRegistry.bumpRole(id);
         roleRepository.delete(role);
+        userDetailsCache.evictRole(role.getName());
+        approximateCountService.adjust(ApproximateCountService.ROLES, -1);
+        roleRegistry.reload();
     }
 
     @Override
-    public RoleResponse getRoleById(Long id) {
-        Role role = roleRepository.findById(id)
+    public List<String> getRolePermissions(Long id) {
+        return roleRegistry.findById(id)
+                .orElseThrow(() -> new RoleNotFoundException(id))
+                .permissionNames().stream()
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public List<String> updateRolePermissions(Long id, Set<String> permissions) {
+        Role existing = roleRepository.findById(id)
                 .orElseThrow(() -> new RoleNotFoundException(id));
+        // Startup grants ADMIN every permission again, so a change would not stick
+        if (ADMIN_ROLE.equals(existing.getName())) {
+            throw new IllegalArgumentException("The permissions of " + ADMIN_ROLE + " cannot be changed");
+        }
+        Set<AppPermission> granted = permissions.stream()
+                .map(name -> AppPermission.fromName(name.trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown permission '" + name + "'")))
+                .collect(Collectors.toSet());
+
+        existing.setPermissions(findPermissions(granted));
+        // Moves the role's ETag and the registry version
+        existing.setUpdatedAt(LocalDateTime.now());
+        roleRepository.save(existing);
+        // The registry evicts cached principals of the role once its bitset changes
+        roleRegistry.reload();
+        return getRolePermissions(id);
+    }
+
+    @Override
+    public RoleResponse getRoleById(Long id) {
+        Role role = roleRegistry.findById(id)
+                .orElseThrow(() -> new RoleNotFoundException(id))
+                .toEntity();
         return roleMapper.toResponse(role);
     }
 
+    @Override
+    public ResourceVersion getRoleVersion(Long id) {
+        RoleRegistry.RoleView role = roleRegistry.findById(id)
+                .orElseThrow(() -> new RoleNotFoundException(id));
+        return ResourceVersion.of(role.updatedAt(), role.id(), role.updatedAt());
+    }
+
     @Override
     public RoleResponse getRoleByName(String name) {
-        Role role = roleRepository.findByName(name)
-                .orElseThrow(() -> new RoleNotFoundException(name));
+        Role role = roleRegistry.findByName(name)
+                .orElseThrow(() -> new RoleNotFoundException(name))
+                .toEntity();
         return roleMapper.toResponse(role);
     }
 
     @Override
     public List<RoleResponse> getAllRoles() {
-        List<Role> roles = roleRepository.findAll();
+        // Same snapshot the list version is computed from, so body and ETag always agree
+        List<Role> roles = roleRegistry.getRoles().stream()
+                .sorted(Comparator.comparing(RoleRegistry.RoleView::id))
+                .map(RoleRegistry.RoleView::toEntity)
+                .toList();
         return roleMapper.toResponseList(roles);
     }
 
+    @Override
+    public ResourceVersion getAllRolesVersion() {
+        return roleRegistry.getVersion();
+    }
+
     @Override
     public Page<RoleResponse> getAllRoles(Pageable pageable) {
         Page<Role> rolePage = roleRepository.findAll(pageable);
         return rolePage.map(roleMapper::toResponse);
     }
 
+    @Override
+    public SliceResponse<RoleResponse> getAllRolesSlice(Pageable pageable) {
+        Slice<Role> roleSlice = roleRepository.findAllBy(pageable);
+        long total = approximateCountService.getCount(ApproximateCountService.ROLES, roleRepository::count);
+        return new SliceResponse<>(roleSlice.map(roleMapper::toResponse).getContent(), roleSlice.getNumber(),
+                roleSlice.getSize(), roleSlice.hasNext(), total);
+    }
+
     @Override
     public boolean existsByName(String name) {
-        return roleRepository.existsByName(name);
+        return roleRegistry.existsByName(name);
+    }
+
+    private Set<Permission> findPermissions(Set<AppPermission> permissions) {
+        return new HashSet<>(permissionRepository.findAllById(
+                permissions.stream().map(AppPermission::name).toList()));
     }
 }
@@ -0,0 +1,216 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.dto.request.SkillRequest;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.SkillResponse;
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.entities.Skill;
+import com.example.usermanagement.entities.User;
+import com.example.usermanagement.event.UserSkillsChangedEvent;
+import com.example.usermanagement.exception.SkillNotFoundException;
+import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.mapper.SkillMapper;
+import com.example.usermanagement.repositories.SkillRepository;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.repositories.UserRepository;
+import com.example.usermanagement.search.UserSkillIndex;
+import com.example.usermanagement.service.SkillService;
+import com.example.usermanagement.util.CursorCodec;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class SkillServiceImpl implements SkillService {
+    private final SkillRepository skillRepository;
+    private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final SkillMapper skillMapper;
+    private final UserSkillIndex userSkillIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final CursorCodec cursorCodec;
+
+    @Override
+    public SkillResponse createSkill(SkillRequest request) {
+        if (skillRepository.existsByNameIgnoreCase(request.getName().trim())) {
+            throw new IllegalArgumentException("Skill with name '" + request.getName() + "' already exists");
+        }
+        Skill saved = skillRepository.save(skillMapper.toEntity(request));
+        return skillMapper.toResponse(saved, 0);
+    }
+
+    @Override
+    public SkillResponse updateSkill(Long id, SkillRequest request) {
+        Skill existing = skillRepository.findById(id)
+                .orElseThrow(() -> new SkillNotFoundException(id));
+        String name = request.getName().trim();
+        if (!existing.getName().equalsIgnoreCase(name) && skillRepository.existsByNameIgnoreCase(name)) {
+            throw new IllegalArgumentException("Skill with name '" + name + "' already exists");
+        }
+        existing.setName(name);
+        Skill saved = skillRepository.save(existing);
+        return toResponse(saved);
+    }
+
+    @Override
+    @Transactional
+    public void deleteSkill(Long id) {
+        Skill skill = skillRepository.findById(id)
+                .orElseThrow(() -> new SkillNotFoundException(id));
+        userJdbcRepository.deleteSkillAssignments(id);
+        skillRepository.delete(skill);
+        // The assignments went away behind Hibernate's back, so cached skill sets may still list the skill.
+        // Evict after commit; evicting earlier lets a concurrent reader cache the old rows again.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().unwrap(Cache.class)
+                        .evictCollectionData(User.class.getName() + ".skills");
+            }
+        });
+        eventPublisher.publishEvent(UserSkillsChangedEvent.skillDeleted(id));
+    }
+
+    @Override
+    public SkillResponse getSkillById(Long id) {
+        return skillRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new SkillNotFoundException(id));
+    }
+
+    @Override
+    public List<SkillResponse> getAllSkills() {
+        return skillRepository.findAllByOrderByNameAsc().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SkillResponse> getUserSkills(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        return toResponses(user.getSkills() == null ? List.of() : user.getSkills());
+    }
+
+    @Override
+    public List<SkillResponse> replaceUserSkills(Long userId, Set<Long> skillIds) {
+        // User counts come from the skill index, which only sees the change once it is committed
+        List<Skill> skills = transactionTemplate.execute(status -> assignSkills(userId, skillIds));
+        return toResponses(skills);
+    }
+
+    private List<Skill> assignSkills(Long userId, Set<Long> skillIds) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        List<Skill> skills = skillRepository.findAllById(skillIds);
+        if (skills.size() != skillIds.size()) {
+            Set<Long> found = skills.stream().map(Skill::getId).collect(Collectors.toSet());
+            skillIds.stream().filter(skillId -> !found.contains(skillId)).findFirst().ifPresent(missing -> {
+                throw new SkillNotFoundException(missing);
+            });
+        }
+
+        if (user.getSkills() == null) {
+            user.setSkills(new HashSet<>());
+        }
+        Set<Skill> current = user.getSkills();
+        // Both sides are managed instances of the same session, so identity comparison is enough
+        if (!current.equals(new HashSet<>(skills))) {
+            // Edit in place so only the difference is written to user_skill
+            current.retainAll(skills);
+            current.addAll(skills);
+            // The dirty collection already bumps the version; the timestamp makes the change visible as well
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+            eventPublisher.publishEvent(UserSkillsChangedEvent.assigned(userId, skillIds));
+        }
+        return skills;
+    }
+
+    @Override
+    public CursorPageResponse<UserResponse> findUsersBySkills(List<String> all, List<String> any, List<String> none,
+                                                              String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        if (all.isEmpty() && any.isEmpty() && none.isEmpty()) {
+            throw new IllegalArgumentException("At least one of all, any or none is required");
+        }
+        Set<String> names = Stream.of(all, any, none).flatMap(List::stream).map(SkillServiceImpl::lower)
+                .collect(Collectors.toSet());
+        Map<String, Long> idsByName = skillRepository.findByLowerNames(names).stream()
+                .collect(Collectors.toMap(skill -> lower(skill.getName()), Skill::getId));
+        BitSet matches = userSkillIndex.query(resolve(all, idsByName), resolve(any, idsByName),
+                resolve(none, idsByName));
+
+        // Ascending id order, seeking past the last id of the previous page; only the requested page is loaded
+        int bit = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            String lastId = cursorCodec.decode(cursor).get("id");
+            if (lastId == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            bit = Math.toIntExact(Long.parseLong(lastId)) + 1;
+        }
+        List<Long> ids = new ArrayList<>(pageSize);
+        for (bit = matches.nextSetBit(bit); bit >= 0 && ids.size() < pageSize; bit = matches.nextSetBit(bit + 1)) {
+            ids.add((long) bit);
+        }
+        Map<Long, UserResponse> users = ids.isEmpty() ? Map.of() : userRepository.findResponsesByIds(ids).stream()
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+        List<UserResponse> content = ids.stream().map(users::get).filter(user -> user != null).toList();
+        // bit is now the first match after this page, if any
+        String nextCursor = bit >= 0 ? cursorCodec.encode(Map.of("id", String.valueOf(ids.get(ids.size() - 1))))
+                : null;
+        return new CursorPageResponse<>(content, content.size(), nextCursor, nextCursor != null);
+    }
+
+    private static List<Long> resolve(List<String> names, Map<String, Long> idsByName) {
+        return names.stream().map(name -> {
+            Long id = idsByName.get(lower(name));
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown skill '" + name.trim() + "'");
+            }
+            return id;
+        }).toList();
+    }
+
+    private static String lower(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<SkillResponse> toResponses(Collection<Skill> skills) {
+        return skills.stream()
+                .sorted(Comparator.comparing(Skill::getName, String.CASE_INSENSITIVE_ORDER))
+                .map(this::toResponse)
+                .toList();
+    }
+
+    private SkillResponse toResponse(Skill skill) {
+        return skillMapper.toResponse(skill, userSkillIndex.countUsers(skill.getId()));
+    }
+}
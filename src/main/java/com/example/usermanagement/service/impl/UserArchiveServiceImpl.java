@@ -0,0 +1,94 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.service.UserArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves users soft-deleted longer ago than the retention window out of the hot users table.
+ * Works in small batches, each in its own short transaction, and pauses between them so row locks stay
+ * brief and replicas can keep up.
+ */
+@Service
+@Slf4j
+public class UserArchiveServiceImpl implements UserArchiveService {
+
+    private final UserJdbcRepository userJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final Duration retention;
+
+    private final int batchSize;
+
+    private final Duration pause;
+
+    private final int maxBatchesPerRun;
+
+    public UserArchiveServiceImpl(UserJdbcRepository userJdbcRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.users.archive.enabled:true}") boolean enabled,
+                                  @Value("${app.users.archive.retention:30d}") Duration retention,
+                                  @Value("${app.users.archive.batch-size:500}") int batchSize,
+                                  @Value("${app.users.archive.pause:200ms}") Duration pause,
+                                  @Value("${app.users.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${app.users.archive.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (enabled) {
+            archiveDeletedUsers();
+        }
+    }
+
+    @Override
+    public int archiveDeletedUsers() {
+        // Fixed for the whole run, so users deleted meanwhile wait for the next one
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long started = System.currentTimeMillis();
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int moved;
+            try {
+                moved = transactionTemplate.execute(status -> userJdbcRepository.archiveDeleted(cutoff, batchSize));
+            } catch (DataAccessException e) {
+                // Usually another instance archiving the same rows; the batch rolled back and is retried next run
+                log.warn("User archival batch failed, stopping this run", e);
+                break;
+            }
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} users deleted before {} in {} ms", archived, cutoff,
+                    System.currentTimeMillis() - started);
+        }
+        return archived;
+    }
+}
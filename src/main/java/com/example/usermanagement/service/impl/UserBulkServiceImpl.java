@@ -0,0 +1,116 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.dto.request.BulkUserFilter;
+import com.example.usermanagement.dto.request.BulkUserRequest;
+import com.example.usermanagement.dto.response.BulkUserResponse;
+import com.example.usermanagement.enums.BulkUserAction;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.exception.RoleNotFoundException;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.SecurityVersionRegistry;
+import com.example.usermanagement.security.UserDetailsCache;
+import com.example.usermanagement.service.UserBulkService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Applies one action to many users with set-based UPDATEs in chunks of app.users.bulk.chunk-size ids.
+ * Each chunk commits on its own, so locks stay short and a failure leaves earlier chunks applied.
+ * A chunk first locks the rows it is going to change, so caches, tokens and listeners only hear about those.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserBulkServiceImpl implements UserBulkService {
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final RoleRegistry roleRegistry;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.users.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.users.bulk.max-ids:10000}")
+    private int maxIds;
+
+    @Override
+    public BulkUserResponse apply(BulkUserRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byFilter = request.getFilter() != null && !request.getFilter().isEmpty();
+        if (byIds == byFilter) {
+            throw new IllegalArgumentException("Provide either ids or a non-empty filter");
+        }
+        if (byIds && request.getIds().size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids per request; use a filter instead");
+        }
+        Long roleId = null;
+        if (request.getAction() == BulkUserAction.REASSIGN_ROLE) {
+            if (request.getRoleId() == null) {
+                throw new IllegalArgumentException("roleId is required for REASSIGN_ROLE");
+            }
+            roleId = roleRegistry.findById(request.getRoleId())
+                    .orElseThrow(() -> new RoleNotFoundException(request.getRoleId()))
+                    .id();
+        }
+
+        BulkUserResponse response = new BulkUserResponse(request.getAction(), 0, 0, 0);
+        if (byIds) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                applyChunk(request.getAction(), roleId, ids.subList(from, Math.min(from + chunkSize, ids.size())),
+                        response);
+            }
+        } else {
+            BulkUserFilter filter = request.getFilter();
+            // Keyset over ids, so rows that stop matching after an update never shift later chunks
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                ids = userJdbcRepository.findIds(filter, afterId, chunkSize);
+                if (!ids.isEmpty()) {
+                    applyChunk(request.getAction(), roleId, ids, response);
+                    afterId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == chunkSize);
+        }
+
+        log.info("Bulk {}: {} users matched, {} changed in {} chunks", request.getAction(),
+                response.getMatchedRows(), response.getAffectedRows(), response.getChunks());
+        return response;
+    }
+
+    private void applyChunk(BulkUserAction action, Long roleId, List<Long> ids, BulkUserResponse response) {
+        List<Long> changed = transactionTemplate.execute(status -> {
+            List<Long> locked = userJdbcRepository.lockIdsToChange(action, roleId, ids);
+            if (!locked.isEmpty()) {
+                userJdbcRepository.bulkUpdate(action, roleId, locked);
+            }
+            return locked;
+        });
+        response.setMatchedRows(response.getMatchedRows() + ids.size());
+        response.setAffectedRows(response.getAffectedRows() + changed.size());
+        response.setChunks(response.getChunks() + 1);
+        if (changed.isEmpty()) {
+            return;
+        }
+        // Cached principals carry status and role
+        userDetailsCache.evictUsers(changed);
+        if (action != BulkUserAction.ACTIVATE) {
+            securityVersionRegistry.refresh(changed);
+        }
+        if (action == BulkUserAction.SOFT_DELETE) {
+            // Users that were already deleted must not be counted out twice
+            changed.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+        }
+    }
+}
@@ -3,31 +3,52 @@ package com.example.usermanagement.service.impl;
 
 import com.example.usermanagement.entities.User;
 import com.example.usermanagement.repositories.UserRepository;
+import com.example.usermanagement.security.AuthUser;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        AuthUser cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        // Create spring security user with authorities based on role
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().getName()))
-        );
+        // Create principal with authorities based on role; inactive users are disabled
+        AuthUser authUser = AuthUser.fromUser(user, roleRegistry.getPermissionBits(user.getRole().getName()));
+        userDetailsCache.put(authUser);
+        return authUser;
+    }
+
+    // Called by DaoAuthenticationProvider with a fresh hash when the stored one uses a stale cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        userDetailsCache.evict(user.getUsername());
+        if (user instanceof AuthUser authUser) {
+            return authUser.withPassword(newPassword);
+        }
+        return loadUserByUsername(user.getUsername());
     }
-}
\ No newline at end of file
+}
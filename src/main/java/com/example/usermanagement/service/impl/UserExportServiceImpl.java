@@ -0,0 +1,102 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.dto.request.UserExportFilter;
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.enums.DataFormat;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.service.UserExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the user directory straight from a database cursor to the response, one row at a time,
+ * so heap use does not grow with the number of users exported.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final String CSV_HEADER =
+            "id,name,username,email,phone,role,userAvatar,userAvatarUrl,status,createdAt,updatedAt";
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void exportUsers(UserExportFilter filter, DataFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(UserResponse.class);
+        long[] rows = {0};
+        try {
+            if (format == DataFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write("\r\n");
+            }
+            userJdbcRepository.streamUsers(filter, user -> {
+                try {
+                    if (format == DataFormat.CSV) {
+                        writeCsv(writer, user);
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(user));
+                        writer.write('\n');
+                    }
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is already closed at this point
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} users as {}", rows[0], format);
+    }
+
+    private static void writeCsv(Writer writer, UserResponse user) throws IOException {
+        writer.write(String.valueOf(user.getId()));
+        writeCsvField(writer, user.getName());
+        writeCsvField(writer, user.getUsername());
+        writeCsvField(writer, user.getEmail());
+        writeCsvField(writer, user.getPhone());
+        writeCsvField(writer, user.getRoleName());
+        writeCsvField(writer, user.getUserAvatar());
+        writeCsvField(writer, user.getUserAvatarUrl());
+        writeCsvField(writer, user.getStatus() != null ? user.getStatus().name() : null);
+        writeCsvField(writer, user.getCreatedAt() != null ? user.getCreatedAt().toString() : null);
+        writeCsvField(writer, user.getUpdatedAt() != null ? user.getUpdatedAt().toString() : null);
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks and double embedded quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,541 @@
+package com.example.usermanagement.service.impl;
+
+import com.example.usermanagement.dto.request.ImportUserRow;
+import com.example.usermanagement.dto.response.ImportJobResponse;
+import com.example.usermanagement.dto.response.ImportRowError;
+import com.example.usermanagement.entities.Role;
+import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.DataFormat;
+import com.example.usermanagement.enums.ImportStatus;
+import com.example.usermanagement.enums.UserStatus;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.exception.ImportJobNotFoundException;
+import com.example.usermanagement.exception.ImportQueueFullException;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.service.UserImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Runs bulk imports in the background: the request body is spooled to a temp file and then read row by row,
+ * so memory use depends on the chunk size rather than on the size of the upload.
+ * Each chunk is validated, checked against the database with two IN queries, hashed in parallel
+ * and written with one JDBC batch in its own transaction.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String DEFAULT_ROLE = "USER";
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final RoleRegistry roleRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int historySize;
+
+    // Import jobs queue here so that a burst of uploads cannot take over the request threads
+    private final ExecutorService jobExecutor;
+
+    // Separate from the login hashing pool so a large import cannot starve interactive logins
+    private final ForkJoinPool hashingPool;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<String> jobOrder = new ConcurrentLinkedQueue<>();
+
+    public UserImportServiceImpl(UserJdbcRepository userJdbcRepository,
+                                 RoleRegistry roleRegistry,
+                                 PasswordEncoder passwordEncoder,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.users.import.chunk-size:500}") int chunkSize,
+                                 @Value("${app.users.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                 @Value("${app.users.import.queue-capacity:4}") int queueCapacity,
+                                 @Value("${app.users.import.hashing-parallelism:0}") int hashingParallelism,
+                                 @Value("${app.users.import.max-reported-errors:1000}") int maxReportedErrors,
+                                 @Value("${app.users.import.history-size:100}") int historySize) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.historySize = historySize;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                // Bounded so that queued uploads cannot pile up on disk; a full queue rejects new jobs
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // By default leave half of the cores for request handling and logins
+        int parallelism = hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingPool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public ImportJobResponse startImport(InputStream body, DataFormat format) throws IOException {
+        Path spool = createSpoolFile(format);
+        boolean submitted = false;
+        try {
+            // Write into the file we created; replacing it would drop its owner-only permissions
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                body.transferTo(out);
+            }
+
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+            try {
+                jobExecutor.execute(() -> run(job, spool));
+            } catch (RejectedExecutionException e) {
+                throw new ImportQueueFullException();
+            }
+            submitted = true;
+            // The job may already be running, but it is only looked up by id after we return
+            jobs.put(job.id, job);
+            jobOrder.add(job.id);
+            trimHistory();
+            return job.toResponse();
+        } finally {
+            // Once submitted the job owns the spool and deletes it when it finishes
+            if (!submitted) {
+                Files.deleteIfExists(spool);
+            }
+        }
+    }
+
+    @Override
+    public ImportJobResponse getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ImportJobNotFoundException(id);
+        }
+        return job.toResponse();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        hashingPool.shutdownNow();
+    }
+
+    // The upload may contain password hashes and personal data, so only the service account may read it
+    private static Path createSpoolFile(DataFormat format) throws IOException {
+        String suffix = "." + format.name().toLowerCase(Locale.ROOT);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return Files.createTempFile("user-import-", suffix,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        Path spool = Files.createTempFile("user-import-", suffix);
+        File file = spool.toFile();
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        file.setReadable(true, true);
+        file.setWritable(true, true);
+        return spool;
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.status = ImportStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            // Roles are few and rarely change, so resolve them from one snapshot per job
+            Map<String, Role> roles = roleRegistry.getRoles().stream()
+                    .collect(Collectors.toMap(r -> r.name().toUpperCase(Locale.ROOT), RoleRegistry.RoleView::toEntity,
+                            (a, b) -> a));
+            RowSource source = job.format == DataFormat.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            PendingRow next;
+            while ((next = source.next()) != null) {
+                if (next.error != null) {
+                    // Rows rejected while parsing never reach a chunk
+                    job.processed.incrementAndGet();
+                    job.fail(next.rowNumber, null, next.error);
+                    continue;
+                }
+                chunk.add(next);
+                if (chunk.size() >= chunkSize) {
+                    processChunk(job, chunk, roles);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, chunk, roles);
+            }
+            job.status = ImportStatus.COMPLETED;
+            job.message = "Import completed";
+        } catch (Exception e) {
+            log.error("User import {} failed", job.id, e);
+            job.status = ImportStatus.FAILED;
+            job.message = e.getMessage();
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", spool, e);
+            }
+        }
+        log.info("User import {} finished: {} imported, {} failed", job.id, job.imported.get(), job.failed.get());
+    }
+
+    private void processChunk(ImportJob job, List<PendingRow> chunk, Map<String, Role> roles) {
+        // Validation and duplicates within the chunk
+        List<PendingRow> candidates = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (PendingRow pending : chunk) {
+            ImportUserRow row = pending.row;
+            normalize(row);
+            Set<ConstraintViolation<ImportUserRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                job.fail(pending.rowNumber, row.getUsername(), violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+                continue;
+            }
+            String roleName = row.getRole() == null || row.getRole().isBlank()
+                    ? DEFAULT_ROLE : row.getRole().toUpperCase(Locale.ROOT);
+            pending.role = roles.get(roleName);
+            if (pending.role == null) {
+                job.fail(pending.rowNumber, row.getUsername(), "Role not found: " + row.getRole());
+                continue;
+            }
+            if (!usernames.add(row.getUsername().toLowerCase(Locale.ROOT))) {
+                job.fail(pending.rowNumber, row.getUsername(), "Duplicate username in import");
+                continue;
+            }
+            if (!emails.add(row.getEmail().toLowerCase(Locale.ROOT))) {
+                job.fail(pending.rowNumber, row.getUsername(), "Duplicate email in import");
+                continue;
+            }
+            candidates.add(pending);
+        }
+
+        // Existing users, two queries for the whole chunk
+        Set<String> takenUsernames = userJdbcRepository.findExistingUsernames(
+                candidates.stream().map(p -> p.row.getUsername()).toList());
+        Set<String> takenEmails = userJdbcRepository.findExistingEmails(
+                candidates.stream().map(p -> p.row.getEmail()).toList());
+        List<PendingRow> accepted = new ArrayList<>(candidates.size());
+        for (PendingRow pending : candidates) {
+            if (takenUsernames.contains(pending.row.getUsername().toLowerCase(Locale.ROOT))) {
+                job.fail(pending.rowNumber, pending.row.getUsername(), "Username already exists");
+            } else if (takenEmails.contains(pending.row.getEmail().toLowerCase(Locale.ROOT))) {
+                job.fail(pending.rowNumber, pending.row.getUsername(), "Email already exists");
+            } else {
+                accepted.add(pending);
+            }
+        }
+        job.processed.addAndGet(chunk.size());
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // Hashing dominates the cost of an import, so spread it over the dedicated pool
+        List<User> users = hashingPool.submit(() -> accepted.parallelStream().map(this::toUser).toList()).join();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userJdbcRepository.batchInsert(users));
+            job.imported.addAndGet(users.size());
+            users.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.created(user)));
+        } catch (DataIntegrityViolationException e) {
+            // Another writer took a name after the pre-check; find the offending rows one by one
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userJdbcRepository.batchInsert(List.of(user)));
+                    job.imported.incrementAndGet();
+                    eventPublisher.publishEvent(UserChangedEvent.created(user));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    job.fail(accepted.get(i).rowNumber, user.getUsername(), "Username or email already exists");
+                }
+            }
+        }
+    }
+
+    private User toUser(PendingRow pending) {
+        ImportUserRow row = pending.row;
+        return User.builder()
+                .name(row.getName())
+                .username(row.getUsername())
+                .password(passwordEncoder.encode(row.getPassword()))
+                .email(row.getEmail())
+                .phone(row.getPhone())
+                .status(UserStatus.ACTIVE)
+                .isDeleted(false)
+                .role(pending.role)
+                .build();
+    }
+
+    private static void normalize(ImportUserRow row) {
+        row.setName(blankToNull(row.getName()));
+        row.setUsername(blankToNull(row.getUsername()));
+        row.setEmail(blankToNull(row.getEmail()));
+        row.setPhone(blankToNull(row.getPhone()));
+        row.setRole(blankToNull(row.getRole()));
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // Drop the oldest finished jobs once the history is full; running jobs are never dropped
+    private void trimHistory() {
+        Iterator<String> it = jobOrder.iterator();
+        while (jobs.size() > historySize && it.hasNext()) {
+            String id = it.next();
+            ImportJob job = jobs.get(id);
+            if (job == null || job.finishedAt != null) {
+                it.remove();
+                jobs.remove(id);
+            }
+        }
+    }
+
+    private final class ImportJob {
+        private final String id;
+        private final DataFormat format;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ImportRowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportStatus status = ImportStatus.PENDING;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, DataFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void fail(long rowNumber, String username, String reason) {
+            failed.incrementAndGet();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(rowNumber, username, reason));
+            }
+        }
+
+        private ImportJobResponse toResponse() {
+            List<ImportRowError> snapshot;
+            synchronized (errors) {
+                snapshot = new ArrayList<>(errors);
+            }
+            return new ImportJobResponse(id, status, format, processed.get(), imported.get(),
+                    failed.get(), snapshot, message, startedAt, finishedAt);
+        }
+    }
+
+    private static final class PendingRow {
+        private final long rowNumber;
+        private final ImportUserRow row;
+        private final String error;
+        private Role role;
+
+        private PendingRow(long rowNumber, ImportUserRow row, String error) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        // Next data row, or null at the end of input
+        PendingRow next() throws IOException;
+    }
+
+    // One JSON object per line; blank lines are skipped
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long rowNumber;
+
+        private NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public PendingRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new PendingRow(rowNumber, objectMapper.readValue(line, ImportUserRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new PendingRow(rowNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // RFC 4180 CSV with a header row naming the columns (name, username, password, email, phone, role)
+    private static final class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private Map<String, Integer> columns;
+        private long rowNumber;
+
+        private CsvRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public PendingRow next() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+                    // Spreadsheet exports often start with a byte order mark
+                    if (i == 0 && column.startsWith("\uFEFF")) {
+                        column = column.substring(1);
+                    }
+                    columns.put(column, i);
+                }
+                if (!columns.containsKey("username")) {
+                    throw new IllegalArgumentException("CSV header must contain a username column");
+                }
+            }
+            List<String> record;
+            while ((record = readRecord()) != null) {
+                rowNumber++;
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (record.size() != columns.size()) {
+                    return new PendingRow(rowNumber, null,
+                            "Expected " + columns.size() + " columns but found " + record.size());
+                }
+                ImportUserRow row = new ImportUserRow(column(record, "name"), column(record, "username"),
+                        column(record, "password"), column(record, "email"), column(record, "phone"),
+                        column(record, "role"));
+                return new PendingRow(rowNumber, row, null);
+            }
+            return null;
+        }
+
+        private String column(List<String> record, String name) {
+            Integer index = columns.get(name);
+            return index == null ? null : record.get(index);
+        }
+
+        // Quoted fields may contain commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                char ch = (char) c;
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\r' || ch == '\n') {
+                    if (ch == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    break;
+                } else {
+                    field.append(ch);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,28 +1,57 @@
 package com.example.usermanagement.service.impl;
 
 import com.example.usermanagement.dto.request.CreateUserRequest;
+import com.example.usermanagement.dto.request.PatchUserRequest;
 import com.example.usermanagement.dto.request.UpdateUserRequest;
+import com.example.usermanagement.dto.response.CursorPageResponse;
+import com.example.usermanagement.dto.response.SliceResponse;
+import com.example.usermanagement.dto.response.UserBatchResponse;
 import com.example.usermanagement.dto.response.UserResponse;
 import com.example.usermanagement.entities.User;
+import com.example.usermanagement.enums.BulkUserAction;
+import com.example.usermanagement.enums.UserField;
 import com.example.usermanagement.enums.UserStatus;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.exception.PreconditionFailedException;
 import com.example.usermanagement.exception.RoleNotFoundException;
 import com.example.usermanagement.exception.UserExistedException;
 import com.example.usermanagement.exception.UserNotFoundException;
 import com.example.usermanagement.mapper.UserMapper;
-import com.example.usermanagement.repositories.RoleRepository;
+import com.example.usermanagement.repositories.UserJdbcRepository;
 import com.example.usermanagement.repositories.UserRepository;
+import com.example.usermanagement.repositories.UserSpecifications;
+import com.example.usermanagement.search.UserSearchIndex;
+import com.example.usermanagement.security.AuthUser;
+import com.example.usermanagement.security.RoleRegistry;
+import com.example.usermanagement.security.SecurityVersionRegistry;
+import com.example.usermanagement.security.UserDetailsCache;
+import com.example.usermanagement.service.ApproximateCountService;
 import com.example.usermanagement.service.FileService;
 import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.util.CursorCodec;
+import com.example.usermanagement.util.RequestCoalescer;
+import com.example.usermanagement.util.ResourceVersion;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -30,7 +59,18 @@ import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.aspectj.weaver.tools.cache.SimpleCacheFactory.path;
 
@@ -38,17 +78,56 @@ import static org.aspectj.weaver.tools.cache.SimpleCacheFactory.path;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // Sort keys allowed in cursor mode: unique or indexed, so every seek is an index range scan
+    private static final Map<String, Function<String, Object>> KEYSET_SORT_FIELDS = Map.of(
+            "id", Long::valueOf,
+            "username", value -> value,
+            "email", value -> value,
+            "createdAt", LocalDateTime::parse
+    );
+
+    // Sort keys the search index can order by without the database; ties fall back to id
+    private static final Map<String, Comparator<UserSearchIndex.Entry>> INDEX_SORT_FIELDS = Map.of(
+            "id", Comparator.comparingInt(UserSearchIndex.Entry::id),
+            "username", Comparator.comparing(UserSearchIndex.Entry::username,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)),
+            "email", Comparator.comparing(UserSearchIndex.Entry::email,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)),
+            "name", Comparator.comparing(UserSearchIndex.Entry::name,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+    );
+
     @Value("${base.url}")
     private String baseUrl;
 
     @Value("${project.images}")
     private String path;
 
+    @Value("${app.users.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${app.users.batch.coalesce-window:2ms}")
+    private Duration coalesceWindow;
+
+    @Value("${app.users.batch.coalesce-max-size:100}")
+    private int coalesceMaxSize;
+
+    // Single-user reads arriving together share one IN query
+    @Getter
+    private RequestCoalescer<Long, UserResponse> userLookups;
+
 
     private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
     private final UserMapper userMapper;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final FileService fileService;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final UserDetailsCache userDetailsCache;
+    private final CursorCodec cursorCodec;
+    private final UserSearchIndex userSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApproximateCountService approximateCountService;
 
 
     @Override
@@ -66,15 +145,72 @@ public class UserServiceImpl implements UserService {
 
 
         // Check if username or email already exists
-        if (userRepository.existsByUsername(request.getUsername()) || userRepository.existsByEmail(request.getEmail())) {
+        if (userJdbcRepository.existsByUsername(request.getUsername())
+                || userJdbcRepository.existsByEmail(request.getEmail())) {
             throw new UserExistedException(request.getUsername());
         }
         User user = userMapper.toEntity(request);
 
 
-        user.setRole(roleRepository.findByName("USER")
-                .orElseThrow(() -> new RoleNotFoundException("Default role USER not found")));
-        return  userRepository.save(user);
+        user.setRole(roleRegistry.findByName("USER")
+                .orElseThrow(() -> new RoleNotFoundException("Default role USER not found"))
+                .toEntity());
+        User saved = userRepository.save(user);
+        userDetailsCache.evict(saved.getUsername());
+        eventPublisher.publishEvent(UserChangedEvent.created(saved));
+        return saved;
+    }
+
+    @Override
+    public UserResponse patchUser(Long id, PatchUserRequest request, Long expectedVersion) {
+        if (request.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        // Column names are fixed here; only the values come from the request
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (request.getName() != null) {
+            columns.put("name", request.getName());
+        }
+        if (request.getUsername() != null) {
+            columns.put("username", request.getUsername());
+        }
+        if (request.getEmail() != null) {
+            columns.put("email", request.getEmail());
+        }
+        if (request.getPhone() != null) {
+            columns.put("phone", request.getPhone());
+        }
+        if (request.getRole_id() != null) {
+            columns.put("role_id", roleRegistry.findById(request.getRole_id())
+                    .orElseThrow(() -> new RoleNotFoundException(request.getRole_id()))
+                    .id());
+        }
+
+        int updated;
+        try {
+            updated = userJdbcRepository.patch(id, columns, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            // Only username and email are unique
+            throw new UserExistedException(request.getUsername() != null ? request.getUsername() : request.getEmail());
+        }
+        if (updated == 0) {
+            // Tell a missing user apart from a stale version only on the failure path
+            if (expectedVersion == null || !userRepository.existsById(id)) {
+                throw new UserNotFoundException(id);
+            }
+            throw new PreconditionFailedException("User " + id + " is no longer at version " + expectedVersion);
+        }
+
+        // Tokens carry username and role, so a PATCH touching either invalidates them
+        if (request.getUsername() != null || request.getRole_id() != null) {
+            securityVersionRegistry.bump(id);
+            userDetailsCache.evictUser(id);
+        }
+        UserResponse patched = userRepository.findResponseById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        userDetailsCache.evict(patched.getUsername());
+        eventPublisher.publishEvent(UserChangedEvent.updated(patched));
+        return patched;
     }
 
 //    @PostAuthorize("returnObject.username == authentication.name")
@@ -82,13 +218,16 @@ public class UserServiceImpl implements UserService {
     public User updateUser(Long id, UpdateUserRequest request, MultipartFile imageFile) throws IOException {
         User existing = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
+        String previousUsername = existing.getUsername();
+        Long previousRoleId = existing.getRole() != null ? existing.getRole().getId() : null;
         existing.setName(request.getName());
         existing.setUsername(request.getUsername());
         existing.setEmail(request.getEmail());
         existing.setPhone(request.getPhone());
         if (request.getRole_id() != null) {
-            existing.setRole(roleRepository.findById(request.getRole_id())
-                    .orElseThrow(() -> new RoleNotFoundException(request.getRole_id())));
+            existing.setRole(roleRegistry.findById(request.getRole_id())
+                    .orElseThrow(() -> new RoleNotFoundException(request.getRole_id()))
+                    .toEntity());
         }
 
         String userAvatar = existing.getUserAvatar();
@@ -106,37 +245,128 @@ public class UserServiceImpl implements UserService {
         }
         existing.setUserAvatar(userAvatar);
         existing.setUserAvatarUrl(userAvatarUrl);
-        return userRepository.save(existing);
+        User saved = userRepository.save(existing);
+
+        // Tokens carry username and role, so changing either invalidates them
+        if (!previousUsername.equals(saved.getUsername())
+                || (request.getRole_id() != null && !request.getRole_id().equals(previousRoleId))) {
+            securityVersionRegistry.bump(id);
+        }
+        userDetailsCache.evict(previousUsername);
+        userDetailsCache.evict(saved.getUsername());
+        eventPublisher.publishEvent(UserChangedEvent.updated(saved));
+        return saved;
     }
 
     @Override
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
-        user.setStatus(UserStatus.INACTIVE);
-        //save user
-        userRepository.save(user);
+        // Soft delete in one UPDATE: flags the row, deactivates it and invalidates its tokens.
+        // The archival job moves it out of the users table once the retention window has passed.
+        if (userJdbcRepository.bulkUpdate(BulkUserAction.SOFT_DELETE, null, List.of(id)) == 0) {
+            throw new UserNotFoundException(id);
+        }
+        securityVersionRegistry.refresh(List.of(id));
+        userDetailsCache.evictUser(id);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
     }
 
     @Override
     public UserResponse activateUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+        Optional<User> live = userRepository.findById(id);
+        if (live.isEmpty()) {
+            // Soft-deleted users are hidden from the repository, so activating one restores it
+            return restoreUser(id);
+        }
+        User user = live.get();
         // Set status to ACTIVE
         user.setStatus(UserStatus.ACTIVE);
         // Save the updated user
         User activatedUser = userRepository.save(user);
+        userDetailsCache.evict(activatedUser.getUsername());
         return userMapper.toResponse(activatedUser);
     }
 
+    private UserResponse restoreUser(Long id) {
+        if (userJdbcRepository.restore(id) == 0) {
+            throw new UserNotFoundException(id);
+        }
+        securityVersionRegistry.refresh(List.of(id));
+        userDetailsCache.evictUser(id);
+        User restored = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        // Indexes and counts dropped the user on delete, so it comes back as a new one
+        eventPublisher.publishEvent(UserChangedEvent.created(restored));
+        return userMapper.toResponse(restored);
+    }
+
+    @PostConstruct
+    void initUserLookups() {
+        userLookups = new RequestCoalescer<>(this::loadResponses, coalesceWindow, coalesceMaxSize);
+    }
+
+    @Override
+    public UserResponse getUserById(Long id) {
+        UserResponse user = userLookups.load(id);
+        if (user == null) {
+            throw new UserNotFoundException(id);
+        }
+        return user;
+    }
+
+    @Override
+    public UserBatchResponse getUsersByIds(List<Long> ids) {
+        List<Long> requested = ids.stream().filter(id -> id != null).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("ids must contain at least one id");
+        }
+        if (requested.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " ids can be requested at once");
+        }
+        Map<Long, UserResponse> found = loadResponses(requested);
+        List<UserResponse> users = requested.stream().map(found::get).filter(user -> user != null).toList();
+        List<Long> missingIds = requested.stream().filter(id -> !found.containsKey(id)).toList();
+        return new UserBatchResponse(users, missingIds);
+    }
+
+    private Map<Long, UserResponse> loadResponses(Collection<Long> ids) {
+        return userRepository.findResponsesByIds(ids).stream()
+                .collect(Collectors.toMap(UserResponse::getId, Function.identity()));
+    }
+
     @Override
-    public User getUserById(Long id) {
-        return userRepository.findById(id)
+    public Map<String, Object> getUserFields(Long id, String fields) {
+        // Requested name -> field, in request order; duplicates collapse
+        Map<String, UserField> selected = new LinkedHashMap<>();
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            UserField field = UserField.fromName(name).orElseThrow(() -> new IllegalArgumentException(
+                    "Unknown field '" + name.trim() + "'; allowed: " + Arrays.stream(UserField.values())
+                            .map(UserField::getFieldName).collect(Collectors.joining(","))));
+            selected.putIfAbsent(name.trim(), field);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return userJdbcRepository.findFields(id, selected)
                 .orElseThrow(() -> new UserNotFoundException(id));
     }
 
 
     @Override
+    public ResourceVersion getUserVersion(Long id) {
+        UserRepository.VersionView version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        // The response embeds the role, so its edits move Last-Modified; renames also bump the user version
+        LocalDateTime lastModified = version.getRoleUpdatedAt() != null && version.getUpdatedAt() != null
+                && version.getRoleUpdatedAt().isAfter(version.getUpdatedAt())
+                ? version.getRoleUpdatedAt() : version.getUpdatedAt();
+        return ResourceVersion.ofVersion(version.getVersion(), lastModified);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<UserResponse> getAllUsers(int pageNo, int pageSize, String sortBy, String sortDir) {
         // Tạo đối tượng Sort
         Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() :
@@ -145,11 +375,11 @@ public class UserServiceImpl implements UserService {
         // Tạo đối tượng Pageable
         // pageNo bắt đầu từ 0
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<User> userPage = userRepository.findAll(pageable);
-        return userPage.map(userMapper::toResponse);
+        return userRepository.findAllResponses(pageable);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserResponse> searchUsers(String keyword, int pageNo, int pageSize, String sortBy, String sortDir) {
         // Create sort direction
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
@@ -160,11 +390,122 @@ public class UserServiceImpl implements UserService {
         // Create pageable object
         Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
 
+        // Substring matches come from the in-memory index; only the requested page is loaded
+        if (userSearchIndex.canSearch(keyword) && INDEX_SORT_FIELDS.containsKey(sortBy)) {
+            return searchUsersFromIndex(keyword, pageable, direction, sortBy);
+        }
+
         // Search users with pagination and sorting
-        Page<User> userPage = userRepository.findUsersWithSearch(keyword, pageable);
+        return userRepository.findResponsesWithSearch(keyword, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<UserResponse> getAllUsersSlice(int pageNo, int pageSize, String sortBy, String sortDir) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(pageNo, pageSize, Sort.by(direction, sortBy));
+        Slice<UserResponse> userSlice = userRepository.findResponseSlice(pageable);
+        long total = approximateCountService.getCount(ApproximateCountService.USERS, userRepository::count);
+        return toSliceResponse(userSlice, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SliceResponse<UserResponse> searchUsersSlice(String keyword, int pageNo, int pageSize, String sortBy, String sortDir) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(pageNo, pageSize, Sort.by(direction, sortBy));
 
-        // Convert to response DTOs
-        return userPage.map(userMapper::toResponse);
+        // The index already knows the exact number of matches
+        if (userSearchIndex.canSearch(keyword) && INDEX_SORT_FIELDS.containsKey(sortBy)) {
+            Page<UserResponse> page = searchUsersFromIndex(keyword, pageable, direction, sortBy);
+            return toSliceResponse(page, page.getTotalElements());
+        }
+
+        Slice<UserResponse> userSlice = userRepository.findResponseSliceWithSearch(keyword, pageable);
+        String countKey = ApproximateCountService.USER_SEARCH + (keyword == null ? "" : keyword.toLowerCase());
+        long total = approximateCountService.getCount(countKey, () -> userRepository.countUsersWithSearch(keyword));
+        return toSliceResponse(userSlice, total);
+    }
+
+    private static <T> SliceResponse<T> toSliceResponse(Slice<T> slice, long approximateTotal) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(),
+                approximateTotal);
+    }
+
+    private Page<UserResponse> searchUsersFromIndex(String keyword, Pageable pageable, Sort.Direction direction,
+                                                    String sortBy) {
+        List<UserSearchIndex.Entry> matches = userSearchIndex.search(keyword);
+        Comparator<UserSearchIndex.Entry> comparator = INDEX_SORT_FIELDS.get(sortBy)
+                .thenComparingInt(UserSearchIndex.Entry::id);
+        matches.sort(direction == Sort.Direction.DESC ? comparator.reversed() : comparator);
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<Long> ids = matches.subList(from, to).stream().map(entry -> (long) entry.id()).toList();
+        Map<Long, UserResponse> users = userRepository.findResponsesByIds(ids).stream()
+                .collect(Collectors.toMap(UserResponse::getId, user -> user));
+        List<UserResponse> content = ids.stream()
+                .map(users::get)
+                .filter(user -> user != null)
+                .toList();
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> getAllUsers(String cursor, int pageSize, String sortBy, String sortDir) {
+        return scrollUsers(UserSpecifications.all(), cursor, pageSize, sortBy, sortDir);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserResponse> searchUsers(String keyword, String cursor, int pageSize, String sortBy, String sortDir) {
+        return scrollUsers(UserSpecifications.matchesKeyword(keyword), cursor, pageSize, sortBy, sortDir);
+    }
+
+    // Keyset pagination: seek past the last (sortKey, id) instead of skipping OFFSET rows, and never count
+    private CursorPageResponse<UserResponse> scrollUsers(Specification<User> specification, String cursor,
+                                                         int pageSize, String sortBy, String sortDir) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        ScrollPosition position = ScrollPosition.keyset();
+        if (cursor != null && !cursor.isEmpty()) {
+            // A cursor pins the sort it was issued for
+            Map<String, String> state = cursorCodec.decode(cursor);
+            sortBy = state.get("sort");
+            sortDir = state.get("dir");
+            Function<String, Object> parser = KEYSET_SORT_FIELDS.get(sortBy);
+            if (parser == null || state.get("id") == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortBy, parser.apply(state.get("key")));
+            keys.put("id", Long.valueOf(state.get("id")));
+            position = ScrollPosition.forward(keys);
+        } else if (!KEYSET_SORT_FIELDS.containsKey(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination can only sort by " + KEYSET_SORT_FIELDS.keySet());
+        }
+
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id breaks ties so the seek position is always unique
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+        ScrollPosition start = position;
+        Window<User> window = userRepository.findBy(specification,
+                query -> query.sortBy(sort).limit(pageSize).scroll(start));
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            Map<String, String> state = new LinkedHashMap<>();
+            state.put("sort", sortBy);
+            state.put("dir", direction.name());
+            state.put("key", String.valueOf(last.getKeys().get(sortBy)));
+            state.put("id", String.valueOf(last.getKeys().get("id")));
+            nextCursor = cursorCodec.encode(state);
+        }
+        return new CursorPageResponse<>(window.map(userMapper::toResponse).getContent(), window.size(),
+                nextCursor, nextCursor != null);
     }
 
     @Override
@@ -174,6 +515,11 @@ public class UserServiceImpl implements UserService {
             return false;
         }
 
+        // Principals built by JwtFilter already know the user id
+        if (authentication.getPrincipal() instanceof AuthUser principal && principal.getId() != null) {
+            return principal.getId().equals(userId);
+        }
+
         String currentUsername = authentication.getName();
         User user = userRepository.findById(userId).orElse(null);
         return user != null && user.getUsername().equals(currentUsername);
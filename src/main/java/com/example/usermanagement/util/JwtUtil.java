@@ -1,25 +1,95 @@
 package com.example.usermanagement.util;
 
+import com.example.usermanagement.security.AuthUser;
+import com.example.usermanagement.security.JwtKeyring;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
-    // Secret key for signing JWT
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    // Shared keys for signing and verifying JWT, selected by the "kid" header
+    private final JwtKeyring keyring;
+
+    // Parser is immutable and thread-safe, so build it once instead of per call
+    private final JwtParser parser;
+
+    // Access token validity in milliseconds (app.jwt.access-token-validity)
+    private final long TOKEN_VALIDITY;
+
+    // Refresh token validity in milliseconds (app.jwt.refresh-token-validity)
+    private final long REFRESH_TOKEN_VALIDITY;
+
+    // Verified tokens keyed by SHA-256 of the compact token, kept until the token expires
+    private final ExpiringLruCache<String, VerifiedToken> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public JwtUtil(JwtKeyring keyring,
+                   @Value("${app.jwt.access-token-validity:15m}") Duration accessTokenValidity,
+                   @Value("${app.jwt.refresh-token-validity:14d}") Duration refreshTokenValidity,
+                   @Value("${app.jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+        this.keyring = keyring;
+        this.TOKEN_VALIDITY = accessTokenValidity.toMillis();
+        this.REFRESH_TOKEN_VALIDITY = refreshTokenValidity.toMillis();
+        this.verifiedTokens = new ExpiringLruCache<>(verifiedCacheSize);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        JwtKeyring.JwtKey key = keyring.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown or retired signing key: " + header.getKeyId());
+                        }
+                        return key.verificationKey();
+                    }
+                })
+                .build();
+    }
+
+    // Parse and verify the token once; repeated calls with the same token are served from the cache
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        // A cached token stops being valid as soon as its key is retired
+        if (cached != null && keyring.isTrusted(cached.getKeyId())) {
+            return cached;
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        VerifiedToken verified = VerifiedToken.from(jws.getHeader().getKeyId(), jws.getBody());
+        verifiedTokens.put(digest, verified, verified.getExpiresAt());
+        return verified;
+    }
+
+    public ExpiringLruCache<String, VerifiedToken> getVerifiedTokenCache() {
+        return verifiedTokens;
+    }
 
-    // Token validity duration in milliseconds (24 hours)
-    private final long TOKEN_VALIDITY = 30L * 24 * 60 * 60 * 1000;
     // Extract username from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,32 +107,18 @@ public class JwtUtil {
 
     // Extract a specific claim from the token
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = Jwts.claims(verify(token).getClaims());
         return claimsResolver.apply(claims);
     }
 
-    // Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     // Generate token for user with role
     public String generateToken(UserDetails userDetails, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
-        return createToken(claims, userDetails.getUsername());
+        return createToken(claims, userDetails.getUsername(), TOKEN_VALIDITY);
     }
 
-    // Generate token for user (backward compatibility)
+    // Generate short-lived access token for user
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         // Extract role from authorities if available
@@ -72,24 +128,48 @@ public class JwtUtil {
             String role = authority.startsWith("ROLE_") ? authority.substring(5) : authority;
             claims.put("roles", role);
         }
-        return createToken(claims, userDetails.getUsername());
+        // Id and security version let JwtFilter authenticate without loading the user
+        if (userDetails instanceof AuthUser authUser) {
+            claims.put("uid", authUser.getId());
+            claims.put("sv", authUser.getSecurityVersion());
+        }
+        claims.put(VerifiedToken.TYPE_CLAIM, VerifiedToken.ACCESS);
+        return createToken(claims, userDetails.getUsername(), TOKEN_VALIDITY);
     }
 
-    // Create token with claims and subject
-    private String createToken(Map<String, Object> claims, String subject) {
+    // Generate long-lived refresh token; it is only accepted by /api/auth/refresh
+    public String generateRefreshToken(AuthUser authUser) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("uid", authUser.getId());
+        claims.put("sv", authUser.getSecurityVersion());
+        claims.put(VerifiedToken.TYPE_CLAIM, VerifiedToken.REFRESH);
+        return createToken(claims, authUser.getUsername(), REFRESH_TOKEN_VALIDITY);
+    }
+
+    // Create token with claims, subject and a unique id used for revocation
+    private String createToken(Map<String, Object> claims, String subject, long validity) {
+        JwtKeyring.JwtKey key = keyring.getSigningKey();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, key.kid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY))
-                .signWith(key)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validity))
+                .signWith(key.signingKey())
                 .compact();
     }
 
     // Validate token by checking if it belongs to the user and is not expired
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final VerifiedToken verified = verify(token);
+        return (verified.getUsername().equals(userDetails.getUsername()) && !verified.isExpired());
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
 }
 
@@ -0,0 +1,156 @@
+package com.example.usermanagement.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Collects single-key lookups arriving within a short window and answers them with one batched load.
+ * <p>
+ * The first caller of a batch becomes its leader: it waits out the window, detaches the batch and runs the
+ * loader on its own thread; everyone else in the batch just waits for the result. A caller that fills the
+ * batch to its maximum size runs it at once. Concurrent lookups of the same key share one future.
+ * A leader with no other caller in flight skips the window, so uncontended lookups pay no added latency.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> loader;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+
+    // Batch still accepting keys; guarded by lock
+    private Map<K, CompletableFuture<V>> current;
+
+    // Callers inside load, used to tell whether anyone could still join a batch
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong keys = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    public RequestCoalescer(Function<Set<K>, Map<K, V>> loader, Duration window, int maxBatchSize) {
+        this.loader = loader;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    // The loaded value, or null when the loader returned nothing for the key
+    public V load(K key) {
+        active.incrementAndGet();
+        requests.incrementAndGet();
+        try {
+            return join(enqueue(key));
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        Map<K, CompletableFuture<V>> batch;
+        Map<K, CompletableFuture<V>> full = null;
+        boolean leader = false;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            if (current == null) {
+                current = new LinkedHashMap<>();
+                leader = true;
+            }
+            batch = current;
+            future = batch.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.size() >= maxBatchSize) {
+                current = null;
+                full = batch;
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        } else if (leader) {
+            // Alone in load there is nobody to batch with, so only wait when others are looking things up
+            if (active.get() > 1) {
+                awaitWindow(future);
+            }
+            synchronized (lock) {
+                // A caller that filled the batch may have dispatched it already
+                if (current == batch) {
+                    current = null;
+                } else {
+                    batch = null;
+                }
+            }
+            if (batch != null) {
+                dispatch(batch);
+            }
+        }
+        return future;
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getLoadedKeyCount() {
+        return keys.get();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    // Returns early once the batch has been dispatched by a caller that filled it
+    private void awaitWindow(CompletableFuture<V> future) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        try {
+            future.get(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // Run the batch right away rather than leaving its followers waiting
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Failures are reported by join; a timeout just means the window is over
+        }
+    }
+
+    // The batch is detached, so nobody else touches the map any more
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batches.incrementAndGet();
+        keys.addAndGet(batch.size());
+        try {
+            Map<K, V> values = loader.apply(batch.keySet());
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            // Even an Error must reach the followers, or they would wait forever
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.usermanagement.util;
+
+import com.example.usermanagement.exception.PreconditionFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Validators for conditional GET: a strong ETag and a Last-Modified time in epoch milliseconds.
+ * Built from the few columns a representation depends on, so a 304 can be answered without loading it.
+ */
+public record ResourceVersion(String etag, long lastModified) {
+
+    // Opaque ETag over every part that changes the representation; null parts are allowed
+    public static ResourceVersion of(LocalDateTime lastModified, Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            source.append(part).append('|');
+        }
+        return new ResourceVersion(digest(source.toString()), toEpochMillis(lastModified));
+    }
+
+    // ETag that is the entity version itself, so clients can echo it in If-Match
+    public static ResourceVersion ofVersion(long version, LocalDateTime lastModified) {
+        return new ResourceVersion(String.valueOf(version), toEpochMillis(lastModified));
+    }
+
+    // Version required by an If-Match header built from ofVersion; null when absent or "*"
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        // Weak validators never satisfy If-Match
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag");
+        }
+        try {
+            return Long.parseLong(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version");
+        }
+    }
+
+    // -1 tells WebRequest.checkNotModified to skip the Last-Modified check
+    public static long toEpochMillis(LocalDateTime time) {
+        // Timestamps are written with LocalDateTime.now(), i.e. in the JVM zone
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String digest(String source) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            // 128 bits are plenty to tell versions of one resource apart
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.usermanagement.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable result of a successful signature check on a JWT.
+ * Built once per distinct token and shared by every request that presents it.
+ */
+public final class VerifiedToken {
+
+    public static final String TYPE_CLAIM = "typ";
+
+    public static final String ACCESS = "access";
+
+    public static final String REFRESH = "refresh";
+
+    private final String keyId;
+
+    private final String tokenId;
+
+    private final String type;
+
+    private final String username;
+
+    private final String role;
+
+    private final Long userId;
+
+    private final int securityVersion;
+
+    private final long issuedAt;
+
+    private final long expiresAt;
+
+    private final Map<String, Object> claims;
+
+    private VerifiedToken(String keyId, String tokenId, String type, String username, String role, Long userId,
+                          int securityVersion, long issuedAt, long expiresAt, Map<String, Object> claims) {
+        this.keyId = keyId;
+        this.tokenId = tokenId;
+        this.type = type;
+        this.username = username;
+        this.role = role;
+        this.userId = userId;
+        this.securityVersion = securityVersion;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.claims = claims;
+    }
+
+    static VerifiedToken from(String keyId, Claims claims) {
+        // Tokens issued by generateToken(UserDetails) carry "roles", the older overload carries "role"
+        Object role = claims.get("roles");
+        if (role == null) {
+            role = claims.get("role");
+        }
+        Object userId = claims.get("uid");
+        Object securityVersion = claims.get("sv");
+        Object type = claims.get(TYPE_CLAIM);
+        return new VerifiedToken(
+                keyId,
+                claims.getId(),
+                // Tokens issued before refresh tokens existed are access tokens
+                type != null ? type.toString() : ACCESS,
+                claims.getSubject(),
+                role != null ? role.toString() : null,
+                userId instanceof Number n ? n.longValue() : null,
+                securityVersion instanceof Number n ? n.intValue() : 0,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L,
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE,
+                Collections.unmodifiableMap(new LinkedHashMap<>(claims))
+        );
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    // Null for tokens issued before ids were embedded; such tokens cannot be revoked individually
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH.equals(type);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    // Null for tokens issued before user ids were embedded
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.dto.response.UserResponse;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A mocked {@link UserJdbcRepository} whose {@code streamSearchFields} scan returns the rows added by the test.
+ */
+final class SearchFieldsScan {
+
+    final UserJdbcRepository repository = mock(UserJdbcRepository.class);
+
+    // Rows returned by the next scan: id, username, email, name
+    private final List<Object[]> rows = new ArrayList<>();
+
+    SearchFieldsScan() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            for (Object[] row : rows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(repository).streamSearchFields(any());
+    }
+
+    void row(long id, String username, String email, String name) {
+        rows.add(new Object[]{id, username, email, name});
+    }
+
+    void removeRow(long id) {
+        rows.removeIf(row -> (Long) row[0] == id);
+    }
+
+    // Every later scan fails as if the database were down
+    void fail() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database down");
+        }).when(repository).streamSearchFields(any());
+    }
+
+    static UserResponse user(Long id, String username, String email, String name) {
+        UserResponse user = new UserResponse();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setName(name);
+        return user;
+    }
+
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn((Long) row[0]);
+        when(rs.getString("username")).thenReturn((String) row[1]);
+        when(rs.getString("email")).thenReturn((String) row[2]);
+        when(rs.getString("name")).thenReturn((String) row[3]);
+        return rs;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.event.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.usermanagement.search.SearchFieldsScan.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchIndexTest {
+
+    private final SearchFieldsScan scan = new SearchFieldsScan();
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(scan.repository, 50000);
+    }
+
+    @Test
+    void notReadyUntilBuilt() {
+        assertThat(index.canSearch("john")).isFalse();
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.canSearch("john")).isTrue();
+        assertThat(index.canSearch(" jo ")).isFalse();
+        assertThat(index.canSearch(null)).isFalse();
+    }
+
+    @Test
+    void findsSubstringsOfAnyFieldIgnoringCase() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        scan.row(2, "janedoe", "jane@example.com", "Jane Doe");
+        scan.row(3, "admin", "admin@corp.org", "Admin User");
+        index.rebuild();
+
+        assertThat(ids(index.search("DOE"))).containsExactlyInAnyOrder(1, 2);
+        assertThat(ids(index.search("example.com"))).containsExactlyInAnyOrder(1, 2);
+        assertThat(ids(index.search("min us"))).containsExactly(3);
+        assertThat(ids(index.search("  ane"))).containsExactly(2);
+        assertThat(index.search("nobody")).isEmpty();
+    }
+
+    @Test
+    void requiresEveryTrigramOfTheKeyword() {
+        // Both trigrams of "abcd" occur, but never next to each other
+        scan.row(1, "abcxbcd", null, null);
+        scan.row(2, "xabcdx", null, null);
+        index.rebuild();
+
+        assertThat(ids(index.search("abcd"))).containsExactly(2);
+    }
+
+    @Test
+    void followsChangeEvents() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        index.rebuild();
+
+        index.onUserChanged(UserChangedEvent.updated(user(2L, "alice", "alice@example.com", "Alice")));
+        index.onUserChanged(UserChangedEvent.updated(user(1L, "johnny", "johnny@example.com", "Johnny")));
+
+        assertThat(ids(index.search("alice"))).containsExactly(2);
+        // The old postings of user 1 are still there but no longer match its text
+        assertThat(index.search("doe")).isEmpty();
+        assertThat(ids(index.search("johnny"))).containsExactly(1);
+
+        index.onUserChanged(UserChangedEvent.deleted(2L));
+
+        assertThat(index.search("alice")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void staysCorrectAcrossCompactions() {
+        index = new UserSearchIndex(scan.repository, 1);
+        index.rebuild();
+
+        for (long id = 1; id <= 50; id++) {
+            index.onUserChanged(UserChangedEvent.updated(
+                    user(id, "user" + id, "user" + id + "@example.com", "Name " + id)));
+        }
+
+        assertThat(index.search("example")).hasSize(50);
+        assertThat(ids(index.search("user42"))).containsExactly(42);
+        assertThat(ids(index.search("name 7"))).containsExactly(7);
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeElsewhere() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        scan.row(2, "janedoe", "jane@example.com", "Jane Doe");
+        index.rebuild();
+
+        // Another instance deleted user 2 and created user 3
+        scan.removeRow(2);
+        scan.row(3, "bobdoe", "bob@example.com", "Bob Doe");
+        index.refresh();
+
+        assertThat(ids(index.search("doe"))).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRebuildKeepsCurrentState() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        index.rebuild();
+
+        scan.fail();
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(ids(index.search("john"))).containsExactly(1);
+    }
+
+    private static List<Integer> ids(List<UserSearchIndex.Entry> entries) {
+        return entries.stream().map(UserSearchIndex.Entry::id).toList();
+    }
+}
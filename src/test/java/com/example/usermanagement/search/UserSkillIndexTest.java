@@ -0,0 +1,179 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.entities.User;
+import com.example.usermanagement.event.UserChangedEvent;
+import com.example.usermanagement.event.UserSkillsChangedEvent;
+import com.example.usermanagement.repositories.UserJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSkillIndexTest {
+
+    private static final long JAVA = 1;
+    private static final long SQL = 2;
+    private static final long GO = 3;
+
+    private UserJdbcRepository repository;
+
+    // Tables returned by the next scan
+    private final List<Long> liveUserIds = new ArrayList<>();
+    private final List<long[]> userSkills = new ArrayList<>();
+
+    private UserSkillIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserJdbcRepository.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            for (Long id : liveUserIds) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(id);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(repository).streamLiveUserIds(any());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(0);
+            for (long[] row : userSkills) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("user_id")).thenReturn(row[0]);
+                when(rs.getLong("skill_id")).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(repository).streamUserSkills(any());
+        index = new UserSkillIndex(repository);
+
+        // 1: java, sql   2: java   3: sql, go   4: no skills
+        users(1, 2, 3, 4);
+        assign(1, JAVA);
+        assign(1, SQL);
+        assign(2, JAVA);
+        assign(3, SQL);
+        assign(3, GO);
+    }
+
+    @Test
+    void queriesCombineAllAnyAndNone() {
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(1, 2);
+        assertThat(bits(index.query(List.of(JAVA, SQL), List.of(), List.of()))).containsExactly(1);
+        assertThat(bits(index.query(List.of(), List.of(JAVA, GO), List.of()))).containsExactly(1, 2, 3);
+        assertThat(bits(index.query(List.of(), List.of(), List.of(JAVA)))).containsExactly(3, 4);
+        assertThat(bits(index.query(List.of(SQL), List.of(JAVA, GO), List.of(GO)))).containsExactly(1);
+        assertThat(bits(index.query(List.of(99L), List.of(), List.of()))).isEmpty();
+    }
+
+    @Test
+    void firstQueryBuildsTheIndex() {
+        assertThat(index.isReady()).isFalse();
+
+        assertThat(index.countUsers(JAVA)).isEqualTo(2);
+        assertThat(index.isReady()).isTrue();
+    }
+
+    @Test
+    void resultIsAPrivateCopy() {
+        index.query(List.of(JAVA), List.of(), List.of()).clear();
+
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(1, 2);
+    }
+
+    @Test
+    void deletedUsersAreMaskedOutAndComeBackWhenRestored() {
+        index.build();
+
+        index.onUserChanged(UserChangedEvent.deleted(1L));
+
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(2);
+        assertThat(index.countUsers(SQL)).isEqualTo(1);
+
+        index.onUserChanged(UserChangedEvent.created(user(1L)));
+
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(1, 2);
+    }
+
+    @Test
+    void assignmentReplacesTheSkillsOfOneUser() {
+        index.build();
+
+        index.onUserSkillsChanged(UserSkillsChangedEvent.assigned(1L, Set.of(GO)));
+        index.onUserSkillsChanged(UserSkillsChangedEvent.assigned(4L, Set.of(JAVA, 7L)));
+
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(2, 4);
+        assertThat(bits(index.query(List.of(GO), List.of(), List.of()))).containsExactly(1, 3);
+        assertThat(index.countUsers(7L)).isEqualTo(1);
+        assertThat(index.countUsers(SQL)).isEqualTo(1);
+    }
+
+    @Test
+    void deletedSkillMatchesNobody() {
+        index.build();
+
+        index.onUserSkillsChanged(UserSkillsChangedEvent.skillDeleted(SQL));
+
+        assertThat(index.countUsers(SQL)).isZero();
+        assertThat(bits(index.query(List.of(), List.of(), List.of(SQL)))).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void rebuildPicksUpChangesMadeElsewhere() {
+        index.build();
+
+        // Another instance deleted user 2, created user 5 and took sql away from user 1
+        liveUserIds.remove(Long.valueOf(2));
+        users(5);
+        userSkills.removeIf(row -> row[0] == 1 && row[1] == SQL);
+        assign(5, SQL);
+        index.rebuild();
+
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(1);
+        assertThat(bits(index.query(List.of(SQL), List.of(), List.of()))).containsExactly(3, 5);
+    }
+
+    @Test
+    void failedRebuildKeepsCurrentState() {
+        index.build();
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database down");
+        }).when(repository).streamUserSkills(any());
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(bits(index.query(List.of(JAVA), List.of(), List.of()))).containsExactly(1, 2);
+    }
+
+    private void users(long... ids) {
+        for (long id : ids) {
+            liveUserIds.add(id);
+        }
+    }
+
+    private void assign(long userId, long skillId) {
+        userSkills.add(new long[]{userId, skillId});
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static List<Integer> bits(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+}
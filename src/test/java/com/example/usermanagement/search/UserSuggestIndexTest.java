@@ -0,0 +1,114 @@
+package com.example.usermanagement.search;
+
+import com.example.usermanagement.dto.response.UserSuggestion;
+import com.example.usermanagement.event.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.usermanagement.search.SearchFieldsScan.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSuggestIndexTest {
+
+    private final SearchFieldsScan scan = new SearchFieldsScan();
+
+    private UserSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSuggestIndex(scan.repository, 1000);
+    }
+
+    @Test
+    void suggestsByUsernameOrEmailPrefixInKeyOrder() {
+        scan.row(1, "johndoe", "jd@example.com", "John Doe");
+        scan.row(2, "janedoe", "jane@example.com", "Jane Doe");
+        scan.row(3, "admin", "john.admin@corp.org", "Admin User");
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(usernames(index.suggest("J", 10))).containsExactly("janedoe", "johndoe", "admin");
+        assertThat(usernames(index.suggest(" JOHN", 10))).containsExactly("admin", "johndoe");
+        assertThat(usernames(index.suggest("ja", 10))).containsExactly("janedoe");
+        assertThat(index.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void listsEachUserOnceAndHonoursTheLimit() {
+        scan.row(1, "johndoe", "johndoe@example.com", "John Doe");
+        scan.row(2, "johnny", "johnny@example.com", "Johnny");
+        index.rebuild();
+
+        assertThat(usernames(index.suggest("john", 10))).containsExactly("johndoe", "johnny");
+        assertThat(usernames(index.suggest("john", 1))).containsExactly("johndoe");
+        assertThat(index.suggest(" ", 10)).isEmpty();
+        assertThat(index.suggest("john", 0)).isEmpty();
+    }
+
+    @Test
+    void followsChangeEvents() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        index.rebuild();
+
+        index.onUserChanged(UserChangedEvent.updated(user(2L, "alice", "alice@example.com", "alice")));
+        index.onUserChanged(UserChangedEvent.updated(user(1L, "bob", "bob@example.com", "bob")));
+
+        assertThat(usernames(index.suggest("al", 10))).containsExactly("alice");
+        // The old keys of user 1 are still in the dictionary but no longer belong to it
+        assertThat(index.suggest("john", 10)).isEmpty();
+        assertThat(usernames(index.suggest("b", 10))).containsExactly("bob");
+
+        index.onUserChanged(UserChangedEvent.deleted(2L));
+
+        assertThat(index.suggest("al", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void mergesOverlayAndDictionaryAcrossCompactions() {
+        index = new UserSuggestIndex(scan.repository, 1);
+        scan.row(1, "user01", "user01@example.com", "User 1");
+        index.rebuild();
+
+        for (long id = 2; id <= 20; id++) {
+            String username = String.format("user%02d", id);
+            index.onUserChanged(UserChangedEvent.updated(user(id, username, username + "@example.com", username)));
+        }
+
+        assertThat(index.suggest("user", 100)).hasSize(20);
+        assertThat(usernames(index.suggest("user1", 3))).containsExactly("user10", "user11", "user12");
+    }
+
+    @Test
+    void rebuildDropsUsersDeletedElsewhere() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        scan.row(2, "janedoe", "jane@example.com", "Jane Doe");
+        index.rebuild();
+
+        // Another instance deleted user 2 and created user 3
+        scan.removeRow(2);
+        scan.row(3, "jackdoe", "jack@example.com", "Jack Doe");
+        index.refresh();
+
+        assertThat(usernames(index.suggest("j", 10))).containsExactly("jackdoe", "johndoe");
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRebuildKeepsCurrentState() {
+        scan.row(1, "johndoe", "john@example.com", "John Doe");
+        index.rebuild();
+
+        scan.fail();
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(usernames(index.suggest("john", 10))).containsExactly("johndoe");
+    }
+
+    private static List<String> usernames(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::getUsername).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.usermanagement.security;
+
+import com.example.usermanagement.repositories.RevokedTokenJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+
+    private RevokedTokenJdbcRepository repository;
+
+    private TokenRevocationList revocations;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenJdbcRepository.class);
+        when(repository.insert(anyString(), anyLong(), anyLong())).thenReturn(true);
+        revocations = new TokenRevocationList(Duration.ofHours(1), 1024, Duration.ofMinutes(15),
+                Duration.ofDays(14), repository, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void revokedIdIsReportedUntilExpiry() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        assertThat(revocations.revoke("jti-1", expiresAt)).isTrue();
+
+        assertThat(revocations.isRevoked("jti-1", expiresAt)).isTrue();
+        assertThat(revocations.isRevoked("jti-2", expiresAt)).isFalse();
+        assertThat(revocations.isRevoked(null, expiresAt)).isFalse();
+        assertThat(revocations.size()).isEqualTo(1);
+    }
+
+    @Test
+    void secondRevocationOfSameIdReturnsFalse() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        revocations.revoke("jti-1", expiresAt);
+        when(repository.insert(eq("jti-1"), anyLong(), anyLong())).thenReturn(false);
+
+        assertThat(revocations.revoke("jti-1", expiresAt)).isFalse();
+    }
+
+    @Test
+    void idRevokedByAnotherInstanceIsDetectedAsReuse() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(repository.insert(eq("jti-1"), anyLong(), anyLong())).thenReturn(false);
+
+        assertThat(revocations.revoke("jti-1", expiresAt)).isFalse();
+        assertThat(revocations.isRevoked("jti-1", expiresAt)).isTrue();
+    }
+
+    @Test
+    void expiredTokensAreNotStored() {
+        assertThat(revocations.revoke("jti-1", System.currentTimeMillis() - 1)).isTrue();
+
+        verify(repository, never()).insert(anyString(), anyLong(), anyLong());
+        assertThat(revocations.size()).isZero();
+    }
+
+    @Test
+    void syncLoadsRevocationsFromTheTable() throws Exception {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("jti")).thenReturn("remote");
+            when(rs.getLong("expires_at")).thenReturn(expiresAt);
+            invocation.<RowCallbackHandler>getArgument(2).processRow(rs);
+            return null;
+        }).when(repository).streamRevokedSince(anyLong(), anyLong(), any());
+
+        revocations.load();
+
+        assertThat(revocations.isRevoked("remote", expiresAt)).isTrue();
+    }
+
+    @Test
+    void purgeDropsBucketsOfExpiredTokens() throws InterruptedException {
+        TokenRevocationList shortBuckets = new TokenRevocationList(Duration.ofMillis(20), 1024,
+                Duration.ofMillis(100), Duration.ofMillis(100), repository, Duration.ofMinutes(1));
+        long expiresAt = System.currentTimeMillis() + 30;
+        shortBuckets.revoke("jti-1", expiresAt);
+
+        Thread.sleep(80);
+        shortBuckets.purgeExpired();
+
+        assertThat(shortBuckets.size()).isZero();
+        verify(repository).deleteExpired(anyLong());
+    }
+
+    @Test
+    void rejectsBloomSizeThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new TokenRevocationList(Duration.ofHours(1), 1000, Duration.ofMinutes(15),
+                Duration.ofDays(14), repository, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
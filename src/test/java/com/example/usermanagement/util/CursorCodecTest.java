@@ -0,0 +1,66 @@
+package com.example.usermanagement.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    private static final String SECRET = "cursor-test-secret-0123456789abcdef";
+
+    private final CursorCodec codec = new CursorCodec(new ObjectMapper(), SECRET);
+
+    @Test
+    void roundTripsState() {
+        Map<String, String> state = Map.of("sort", "name", "dir", "asc", "id", "42");
+
+        assertThat(codec.decode(codec.encode(state))).isEqualTo(state);
+    }
+
+    @Test
+    void rejectsChangedPayload() {
+        String cursor = codec.encode(Map.of("sort", "name", "id", "42"));
+        String signature = cursor.substring(cursor.indexOf('.'));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sort\":\"name\",\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> codec.decode(forged + signature))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsChangedSignature() {
+        String cursor = codec.encode(Map.of("id", "42"));
+        char last = cursor.charAt(cursor.length() - 1);
+        String tampered = cursor.substring(0, cursor.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThatThrownBy(() -> codec.decode(tampered))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsCursorSignedWithAnotherSecret() {
+        CursorCodec other = new CursorCodec(new ObjectMapper(), "another-secret-0123456789abcdef0123");
+
+        assertThatThrownBy(() -> codec.decode(other.encode(Map.of("id", "42"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String cursor = codec.encode(Map.of("id", "42"));
+
+        assertThatThrownBy(() -> codec.decode("no-signature")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(cursor.substring(cursor.indexOf('.'))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode("!!!." + cursor.substring(cursor.indexOf('.') + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(cursor + "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
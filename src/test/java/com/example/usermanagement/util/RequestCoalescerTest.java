@@ -0,0 +1,215 @@
+package com.example.usermanagement.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private static final Duration LONG_WINDOW = Duration.ofSeconds(30);
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    // Key sets the loader was called with, in call order
+    private final List<Set<Integer>> loads = new CopyOnWriteArrayList<>();
+
+    // Holds the first load until released, keeping one caller in flight
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void uncontendedLookupSkipsTheWindow() {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(recording(RequestCoalescerTest::values),
+                LONG_WINDOW, 100);
+
+        long started = System.nanoTime();
+        assertThat(coalescer.load(1)).isEqualTo("v1");
+        assertThat(coalescer.load(2)).isEqualTo("v2");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(loads).containsExactly(Set.of(1), Set.of(2));
+        assertThat(coalescer.getBatchCount()).isEqualTo(2);
+        assertThat(coalescer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentLookupsShareOneBatch() throws Exception {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(blockingFirstLoad(),
+                Duration.ofMillis(500), 100);
+        Future<String> blocker = startBlocker(coalescer);
+
+        List<Future<String>> results = loadAll(coalescer, List.of(1, 2, 3, 4, 5));
+        release.countDown();
+
+        assertThat(blocker.get(5, TimeUnit.SECONDS)).isEqualTo("v0");
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("v" + (i + 1));
+        }
+        assertThat(loads).containsExactly(Set.of(0), Set.of(1, 2, 3, 4, 5));
+        assertThat(coalescer.getBatchCount()).isEqualTo(2);
+        assertThat(coalescer.getLoadedKeyCount()).isEqualTo(6);
+    }
+
+    @Test
+    void duplicateKeysAreLoadedOnce() throws Exception {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(blockingFirstLoad(),
+                Duration.ofMillis(500), 100);
+        Future<String> blocker = startBlocker(coalescer);
+
+        List<Future<String>> results = loadAll(coalescer, List.of(7, 7, 7, 8));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (Future<String> result : results.subList(0, 3)) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("v7");
+        }
+        assertThat(results.get(3).get(5, TimeUnit.SECONDS)).isEqualTo("v8");
+        assertThat(loads.get(1)).containsExactlyInAnyOrder(7, 8);
+        assertThat(coalescer.getRequestCount()).isEqualTo(5);
+    }
+
+    @Test
+    void fullBatchRunsWithoutWaitingOutTheWindow() throws Exception {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(blockingFirstLoad(), LONG_WINDOW, 3);
+        Future<String> blocker = startBlocker(coalescer);
+
+        List<Future<String>> results = loadAll(coalescer, List.of(1, 2, 3));
+
+        // The window is far longer than the timeout, so only a full batch can answer in time
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("v" + (i + 1));
+        }
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertThat(loads.get(1)).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    void missingKeysLoadAsNull() {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(keys -> Map.of(), LONG_WINDOW, 100);
+
+        assertThat(coalescer.load(1)).isNull();
+    }
+
+    @Test
+    void loaderFailureReachesEveryCaller() throws Exception {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(blockingFirstLoad(keys -> {
+            throw new IllegalStateException("database down");
+        }), Duration.ofMillis(500), 100);
+        Future<String> blocker = startBlocker(coalescer);
+
+        List<Future<String>> results = loadAll(coalescer, List.of(1, 2, 3));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void loaderErrorReachesEveryCaller() throws Exception {
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(blockingFirstLoad(keys -> {
+            throw new AssertionError("loader broke");
+        }), Duration.ofMillis(500), 100);
+        Future<String> blocker = startBlocker(coalescer);
+
+        List<Future<String>> results = loadAll(coalescer, List.of(1, 2, 3));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(AssertionError.class);
+        }
+    }
+
+    // Loads key 0 on another thread and returns once its load is blocked on the release latch
+    private Future<String> startBlocker(RequestCoalescer<Integer, String> coalescer) throws InterruptedException {
+        Future<String> blocker = callers.submit(() -> coalescer.load(0));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (loads.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(loads).containsExactly(Set.of(0));
+        return blocker;
+    }
+
+    // Returns once every caller is inside load, on top of the requests made before
+    private List<Future<String>> loadAll(RequestCoalescer<Integer, String> coalescer, List<Integer> keys)
+            throws InterruptedException {
+        long expectedRequests = coalescer.getRequestCount() + keys.size();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (Integer key : keys) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return coalescer.load(key);
+            }));
+        }
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getRequestCount() < expectedRequests && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(coalescer.getRequestCount()).isEqualTo(expectedRequests);
+        return results;
+    }
+
+    private Function<Set<Integer>, Map<Integer, String>> blockingFirstLoad() {
+        return blockingFirstLoad(RequestCoalescerTest::values);
+    }
+
+    private Function<Set<Integer>, Map<Integer, String>> blockingFirstLoad(
+            Function<Set<Integer>, Map<Integer, String>> loader) {
+        return recording(keys -> {
+            if (keys.contains(0)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return values(keys);
+            }
+            return loader.apply(keys);
+        });
+    }
+
+    private Function<Set<Integer>, Map<Integer, String>> recording(Function<Set<Integer>, Map<Integer, String>> loader) {
+        return keys -> {
+            loads.add(Set.copyOf(keys));
+            return loader.apply(keys);
+        };
+    }
+
+    private static Map<Integer, String> values(Set<Integer> keys) {
+        Map<Integer, String> values = new HashMap<>();
+        keys.forEach(key -> values.put(key, "v" + key));
+        return values;
+    }
+}
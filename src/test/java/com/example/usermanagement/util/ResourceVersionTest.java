@@ -0,0 +1,57 @@
+package com.example.usermanagement.util;
+
+import com.example.usermanagement.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResourceVersionTest {
+
+    @Test
+    void absentOrAnyIfMatchRequiresNoVersion() {
+        assertThat(ResourceVersion.parseIfMatch(null)).isNull();
+        assertThat(ResourceVersion.parseIfMatch("")).isNull();
+        assertThat(ResourceVersion.parseIfMatch("  ")).isNull();
+        assertThat(ResourceVersion.parseIfMatch("*")).isNull();
+        assertThat(ResourceVersion.parseIfMatch(" * ")).isNull();
+    }
+
+    @Test
+    void parsesQuotedVersion() {
+        assertThat(ResourceVersion.parseIfMatch("\"5\"")).isEqualTo(5L);
+        assertThat(ResourceVersion.parseIfMatch(" \"0\" ")).isZero();
+    }
+
+    @Test
+    void echoesTheEtagOfOfVersion() {
+        ResourceVersion version = ResourceVersion.ofVersion(7, LocalDateTime.now());
+
+        assertThat(ResourceVersion.parseIfMatch("\"" + version.etag() + "\"")).isEqualTo(7L);
+    }
+
+    @Test
+    void rejectsWeakEtags() {
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("W/\"5\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void rejectsUnquotedValues() {
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("5")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("\"")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("\"5")).isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void rejectsEtagsThatAreNotVersions() {
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("\"abc\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("\"\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ResourceVersion.parseIfMatch("\"1\", \"2\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}